@@ -0,0 +1,14 @@
+#!/usr/bin/env sh
+# Builds the application and the benchmarks, then runs JMH with the gc profiler (allocation rate per operation).
+# Results go to benchmarks/results/<commit>.json; extra arguments are passed to JMH, e.g. a benchmark regex:
+#   benchmarks/run.sh MapperBenchmark -p size=100
+set -e
+
+cd "$(dirname "$0")/.."
+./mvnw -q install -DskipTests
+./mvnw -q -f benchmarks/pom.xml package
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p benchmarks/results
+java -jar benchmarks/target/benchmarks.jar -prof gc -rf json -rff "benchmarks/results/$commit.json" "$@"
+echo "Results written to benchmarks/results/$commit.json"
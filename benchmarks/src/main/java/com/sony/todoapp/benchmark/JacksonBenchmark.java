@@ -0,0 +1,76 @@
+package com.sony.todoapp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sony.todoapp.dto.TodoResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON encoding of list responses, with the ObjectMapper set up the way Spring Boot configures it for WebFlux
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private ObjectWriter listWriter;
+    private ObjectWriter itemWriter;
+    private ObjectMapper mapper;
+    private List<TodoResponseDto> todos;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        listWriter = mapper.writerFor(new TypeReference<List<TodoResponseDto>>() {
+        });
+        itemWriter = mapper.writerFor(TodoResponseDto.class);
+        todos = Todos.responses(size);
+        json = listWriter.writeValueAsBytes(todos);
+    }
+
+    // GET /todo and friends: one JSON array per page
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return listWriter.writeValueAsBytes(todos);
+    }
+
+    // Streaming variants: one JSON object per line (NDJSON)
+    @Benchmark
+    public int serializeNdjson() throws Exception {
+        int bytes = 0;
+        for (TodoResponseDto todo : todos) {
+            bytes += itemWriter.writeValueAsBytes(todo).length + 1;
+        }
+        return bytes;
+    }
+
+    // Client side of the same payload (bulk add bodies have the same shape)
+    @Benchmark
+    public List<TodoResponseDto> deserializeList() throws Exception {
+        return mapper.readValue(json, new TypeReference<>() {
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.sony.todoapp.benchmark;
+
+import com.sony.todoapp.security.VerifiedTokenCache;
+import com.sony.todoapp.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Per-request token check in JwtAuthenticationFilter: the old two-parse path vs. one parse vs. a cache hit
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private String token;
+    private VerifiedTokenCache cache;
+
+    // The old path, rebuilt with its own HS256 key of the same size
+    private SecretKey legacyKey;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken("64f1c0ffee0000000000beef");
+        cache = new VerifiedTokenCache(10_000);
+        cache.verify(token);
+
+        legacyKey = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef0123".getBytes());
+        legacyToken = Jwts.builder()
+                .subject("64f1c0ffee0000000000beef")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 86_400_000L))
+                .signWith(legacyKey)
+                .compact();
+    }
+
+    // Before: getUserIdFromToken + isTokenExpired, each building a parser and checking the HMAC
+    @Benchmark
+    public boolean legacyTwoParses() {
+        Claims claims = Jwts.parser().verifyWith(legacyKey).build().parseSignedClaims(legacyToken).getPayload();
+        String userId = claims.getSubject();
+        Claims again = Jwts.parser().verifyWith(legacyKey).build().parseSignedClaims(legacyToken).getPayload();
+        return userId != null && again.getExpiration().before(new Date());
+    }
+
+    // After, cache miss: one parse with the shared parser
+    @Benchmark
+    public String singleParse() {
+        return JwtUtil.verify(token).getSubject();
+    }
+
+    // After, cache hit: SHA-256 digest + map lookup, no JWT parse or HMAC check
+    @Benchmark
+    public String cachedHit() {
+        return cache.verify(token);
+    }
+}
@@ -0,0 +1,42 @@
+package com.sony.todoapp.benchmark;
+
+import com.sony.todoapp.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// JwtUtil on its own: issuing a token at login and reading the user id back out of it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken(Todos.USER_ID);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken(Todos.USER_ID);
+    }
+
+    @Benchmark
+    public String getUserIdFromToken() {
+        return JwtUtil.getUserIdFromToken(token);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sony.todoapp.benchmark;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoEs;
+import com.sony.todoapp.mapper.TodoMapper;
+import com.sony.todoapp.mapper.TodoMapperImpl;
+import com.sony.todoapp.mapper.TodoSearchMapper;
+import com.sony.todoapp.mapper.TodoSearchMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// MapStruct conversions on the read and sync paths, for one task, a page and a large export
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private final TodoMapper todoMapper = new TodoMapperImpl();
+    private final TodoSearchMapper searchMapper = new TodoSearchMapperImpl();
+
+    private List<Todo> todos;
+    private List<TodoEs> documents;
+
+    @Setup
+    public void setUp() {
+        todos = Todos.entities(size);
+        documents = todos.stream().map(searchMapper::toEs).toList();
+    }
+
+    // Mongo entity → response (Mongo reads, write responses)
+    @Benchmark
+    public List<TodoResponseDto> todoToDto() {
+        List<TodoResponseDto> out = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            out.add(todoMapper.toDto(todo));
+        }
+        return out;
+    }
+
+    // Mongo entity → Elasticsearch document (outbox relay, index rebuild)
+    @Benchmark
+    public List<TodoEs> todoToEs() {
+        List<TodoEs> out = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            out.add(searchMapper.toEs(todo));
+        }
+        return out;
+    }
+
+    // Elasticsearch document → response (search reads)
+    @Benchmark
+    public List<TodoResponseDto> esToDto() {
+        List<TodoResponseDto> out = new ArrayList<>(documents.size());
+        for (TodoEs document : documents) {
+            out.add(searchMapper.toDto(document));
+        }
+        return out;
+    }
+}
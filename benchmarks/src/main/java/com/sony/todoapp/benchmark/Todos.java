@@ -0,0 +1,43 @@
+package com.sony.todoapp.benchmark;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Realistic task payloads shared by the benchmarks: short names, one-line descriptions, a mix of states
+final class Todos {
+
+    static final String USER_ID = "64f1c0ffee0000000000beef";
+
+    private Todos() {
+    }
+
+    static List<Todo> entities(int count) {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 9, 0);
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            todos.add(new Todo(
+                    String.format("6650a1b2c3d4e5f6%08x", i),
+                    "Task " + i + ": buy groceries",
+                    "Milk, eggs, bread and something for dinner on day " + i,
+                    i % 3 == 0,
+                    now.minusMinutes(i),
+                    i % 3 == 0 ? now.minusMinutes(i) : null,
+                    USER_ID,
+                    i + 1));
+        }
+        return todos;
+    }
+
+    static List<TodoResponseDto> responses(int count) {
+        List<TodoResponseDto> responses = new ArrayList<>(count);
+        for (Todo todo : entities(count)) {
+            responses.add(new TodoResponseDto(todo.getId(), todo.getName(), todo.getDescription(), todo.isCompleted(),
+                    todo.getCreatedAt(), todo.getUserId(), todo.getChangeVersion()));
+        }
+        return responses;
+    }
+}
@@ -3,24 +3,34 @@ package com.sony.todoapp.config;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+
 @Configuration
 public class ElasticsearchConfig {
 
     @Bean
-    public RestClient restClient() {
+    public RestClient restClient(@Value("${spring.elasticsearch.uris:http://elasticsearch:9200}") String[] uris) {
         return RestClient.builder(
-                new HttpHost("elasticsearch", 9200, "http") // Docker service name
+                Arrays.stream(uris).map(String::trim).map(HttpHost::create).toArray(HttpHost[]::new)
         ).build();
     }
 
     @Bean
     public ElasticsearchClient elasticsearchClient(RestClient restClient) {
-        RestClientTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper());
+        // Dates as ISO strings, the same shape Spring Data writes for TodoEs.createdAt
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        RestClientTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper(objectMapper));
         return new ElasticsearchClient(transport);
     }
 }
@@ -0,0 +1,32 @@
+package com.sony.todoapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpResources;
+
+// Metrics not covered by Spring Boot's own binders. Request latency (http.server.requests, with .active for
+// in-flight requests) and Mongo commands (mongodb.driver.commands) come from actuator; histograms for those and
+// for the todo.* timers are switched on in application.properties.
+@Configuration
+public class MetricsConfig {
+
+    // Tasks queued on each Netty event loop of the HTTP server; a growing queue means the loops are saturated
+    @Bean
+    public MeterBinder eventLoopPendingTasks() {
+        return registry -> {
+            int index = 0;
+            for (EventExecutor executor : HttpResources.get().onServer(true)) {
+                if (executor instanceof SingleThreadEventExecutor loop) {
+                    Gauge.builder("todo.eventloop.pending.tasks", loop, SingleThreadEventExecutor::pendingTasks)
+                            .description("Tasks waiting to run on a server event loop")
+                            .tag("loop", String.valueOf(index++))
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
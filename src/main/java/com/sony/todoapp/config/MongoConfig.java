@@ -0,0 +1,22 @@
+package com.sony.todoapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+// Multi-document transactions need MongoDB running as a replica set (see docker-compose.yaml)
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public ReactiveMongoTransactionManager reactiveTransactionManager(ReactiveMongoDatabaseFactory factory) {
+        return new ReactiveMongoTransactionManager(factory);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ReactiveMongoTransactionManager transactionManager) {
+        return TransactionalOperator.create(transactionManager);
+    }
+}
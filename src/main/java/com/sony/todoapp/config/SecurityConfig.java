@@ -1,6 +1,9 @@
 package com.sony.todoapp.config;
 
 import com.sony.todoapp.security.JwtAuthenticationFilter;
+import com.sony.todoapp.security.RateLimitFilter;
+import com.sony.todoapp.security.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
@@ -15,7 +18,8 @@ public class SecurityConfig {
 
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
-                                                         JwtAuthenticationFilter jwtFilter) {
+                                                         JwtAuthenticationFilter jwtFilter,
+                                                         RateLimiter rateLimiter) {
 
         http
                 .csrf(csrf -> csrf.disable())
@@ -27,16 +31,21 @@ public class SecurityConfig {
                         .pathMatchers("/").permitAll()
                         .pathMatchers("/index.html").permitAll()
                         .pathMatchers("/js/**", "/css/**").permitAll()
+                        // Scraped by Prometheus; management.server.port keeps them off the public port
+                        .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .pathMatchers("/todo/**").authenticated()
                         .anyExchange().authenticated()
                 )
-                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                // After authentication so requests are limited per user id
+                .addFilterAfter(new RateLimitFilter(rateLimiter), SecurityWebFiltersOrder.AUTHENTICATION);
 
         return http.build();
     }
 
+    // The only password encoder in the app; hashing itself runs on PasswordHasher's pool
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${todo.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -3,6 +3,7 @@ package com.sony.todoapp.controller;
 import com.sony.todoapp.dto.UserRequestDto;
 import com.sony.todoapp.dto.UserResponseDto;
 import com.sony.todoapp.exception.InvalidCredentialsException;
+import com.sony.todoapp.exception.TooManyRequestsException;
 import com.sony.todoapp.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -25,7 +26,8 @@ public class AuthController {
     public Mono<ResponseEntity<UserResponseDto>> register(@RequestBody UserRequestDto requestDto) {
         return authService.register(requestDto)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e ->
+                // 429 from the hashing pool is handled by GlobalExceptionHandler
+                .onErrorResume(e -> !(e instanceof TooManyRequestsException), e ->
                         Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                                 .body(null)));
     }
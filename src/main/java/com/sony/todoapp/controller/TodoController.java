@@ -1,26 +1,44 @@
 package com.sony.todoapp.controller;
 
+import com.sony.todoapp.dto.BulkImportResultDto;
+import com.sony.todoapp.dto.BulkTodoRequestDto;
+import com.sony.todoapp.dto.BulkTodoResultDto;
+import com.sony.todoapp.dto.StreamErrorDto;
+import com.sony.todoapp.dto.TodoChangeEventDto;
+import com.sony.todoapp.dto.TodoChangesDto;
+import com.sony.todoapp.dto.TodoPageDto;
 import com.sony.todoapp.dto.TodoRequestDto;
 import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.dto.TodoStatsDto;
 import com.sony.todoapp.entity.User;
 import com.sony.todoapp.service.TodoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
+@Slf4j
 @RestController
 @RequestMapping("/todo")
 @RequiredArgsConstructor
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TodoService todoService;
 
     // Add single task
@@ -30,15 +48,58 @@ public class TodoController {
         return todoService.addTask(dto, user.getId());
     }
 
+    // JSON array of at most todo.bulk.max-tasks tasks, written in one transaction; more is a 413
     @PostMapping("/add/bulk")
     public Flux<TodoResponseDto> addMultipleTask(@Valid @RequestBody Flux<TodoRequestDto> dtoFlux,
                                                  @AuthenticationPrincipal User user) {
         return todoService.addMultipleTasks(dtoFlux, user.getId());
     }
 
+    // Streaming import: one task per NDJSON line in, one result per line out
+    @PostMapping(value = "/add/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkImportResultDto> importTasks(@RequestBody Flux<TodoRequestDto> dtoFlux,
+                                                 @AuthenticationPrincipal User user) {
+        return todoService.importTasks(dtoFlux, user.getId());
+    }
+
+    // List endpoints are keyset-paginated: pass the X-Next-Cursor header of a page as ?cursor= to get the next one.
+    // They also carry an ETag; send it back as If-None-Match and an unchanged list is answered with 304.
+    // An invalid cursor is a 400 on every one of them, not swallowed by their fallback to an empty list.
     @GetMapping
-    public Flux<TodoResponseDto> getAll(@AuthenticationPrincipal User user) {
-        return todoService.getAllTasks(user.getId());
+    public Mono<ResponseEntity<List<TodoResponseDto>>> getAll(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @AuthenticationPrincipal User user,
+                                                              ServerWebExchange exchange) {
+        return conditional(user.getId(), todoService.listVersion(user.getId()), exchange,
+                version -> todoService.getTasksPage(user.getId(), null, cursor, size, version)
+                        .map(TodoController::toResponse));
+    }
+
+    // Streaming variants of the list endpoints, picked by Accept: application/x-ndjson or text/event-stream.
+    // They return every matching task, written out as it is read from Elasticsearch, instead of one JSON page.
+    // A read that fails part way ends the stream with a StreamErrorDto (see streamed), not a silent end.
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Object> streamAll(@AuthenticationPrincipal User user, ServerWebExchange exchange) {
+        return streamed(todoService.getAllTasks(user.getId()), exchange);
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Object> streamSearch(@RequestParam String keyword,
+                                     @AuthenticationPrincipal User user,
+                                     ServerWebExchange exchange) {
+        return streamed(todoService.searchTasks(keyword, user.getId()), exchange);
+    }
+
+    @GetMapping(value = "/completed", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Object> streamCompleted(@AuthenticationPrincipal User user, ServerWebExchange exchange) {
+        return streamed(todoService.getCompletedTasksEs(user.getId()), exchange);
+    }
+
+    @GetMapping(value = "/pending", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Object> streamPending(@AuthenticationPrincipal User user, ServerWebExchange exchange) {
+        return streamed(todoService.getPendingTasksEs(user.getId()), exchange);
     }
 
 //    // Search tasks by name (e.g. /todo/search?name=read)
@@ -50,13 +111,23 @@ public class TodoController {
 
     @GetMapping("/search")
     public Mono<ResponseEntity<List<TodoResponseDto>>> searchTask(@RequestParam String keyword,
-                                            @AuthenticationPrincipal User user) {
-        return todoService.searchTasks(keyword, user.getId())
-                .collectList()
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> Mono.just(
-                        ResponseEntity.status(500).body(Collections.emptyList())
-                ));
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @AuthenticationPrincipal User user,
+                                                                  ServerWebExchange exchange) {
+        return conditional(user.getId(), todoService.listVersion(user.getId()), exchange,
+                version -> todoService.searchTasksPage(keyword, user.getId(), cursor, size, version)
+                        .map(TodoController::toResponse)
+                        .onErrorResume(e -> !(e instanceof IllegalArgumentException), e -> Mono.just(
+                                ResponseEntity.status(500).body(Collections.emptyList())
+                        )));
+    }
+
+    // Typeahead: task names starting with the given prefix (e.g. /todo/suggest?prefix=gro)
+    @GetMapping("/suggest")
+    public Mono<List<String>> suggest(@RequestParam String prefix,
+                                      @AuthenticationPrincipal User user) {
+        return todoService.suggest(prefix, user.getId());
     }
 
 //    @GetMapping("/search/solr")
@@ -93,24 +164,121 @@ public class TodoController {
         return todoService.deleteTask(id, user.getId());
     }
 
-    // Get completed tasks
+    // Bulk complete: {"ids": [...]} or {"createdBefore": "..."}; one outcome per task
+    @PatchMapping("/complete")
+    public Flux<BulkTodoResultDto> completeTasks(@RequestBody BulkTodoRequestDto request,
+                                                 @AuthenticationPrincipal User user) {
+        return todoService.completeTasks(request, user.getId());
+    }
+
+    // Bulk delete: {"ids": [...]} or {"completedBefore": "..."}; one outcome per task
+    @DeleteMapping
+    public Flux<BulkTodoResultDto> deleteTasks(@RequestBody BulkTodoRequestDto request,
+                                               @AuthenticationPrincipal User user) {
+        return todoService.deleteTasks(request, user.getId());
+    }
+
+    // Get completed tasks; include=archive also lists tasks moved to the archive
     @GetMapping("/completed")
-    public Mono<ResponseEntity<List<TodoResponseDto>>> getCompletedTasks(@AuthenticationPrincipal User user) {
-        return todoService.getCompletedTasksEs(user.getId())
-                .collectList()
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Collections.emptyList())));
+    public Mono<ResponseEntity<List<TodoResponseDto>>> getCompletedTasks(@RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer size,
+                                                                         @RequestParam(required = false) String include,
+                                                                         @AuthenticationPrincipal User user,
+                                                                         ServerWebExchange exchange) {
+        boolean archive = "archive".equals(include);
+        return conditional(user.getId(), todoService.listVersion(user.getId()), exchange,
+                version -> (archive
+                        ? todoService.getCompletedPageWithArchive(user.getId(), cursor, size)
+                        : todoService.getTasksPage(user.getId(), true, cursor, size, version))
+                        .map(TodoController::toResponse)
+                        .onErrorResume(e -> !(e instanceof IllegalArgumentException),
+                                e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(Collections.emptyList()))));
     }
 
 
     //    Get pending tasks
     @GetMapping("/pending")
-    public Mono<ResponseEntity<List<TodoResponseDto>>> getPendingTasks(@AuthenticationPrincipal User user) {
-        return todoService.getPendingTasksEs(user.getId())
-                .collectList()
-                .map(ResponseEntity::ok)
-                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Collections.emptyList())));
+    public Mono<ResponseEntity<List<TodoResponseDto>>> getPendingTasks(@RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size,
+                                                                       @AuthenticationPrincipal User user,
+                                                                       ServerWebExchange exchange) {
+        return conditional(user.getId(), todoService.listVersion(user.getId()), exchange,
+                version -> todoService.getTasksPage(user.getId(), false, cursor, size, version)
+                        .map(TodoController::toResponse)
+                        .onErrorResume(e -> !(e instanceof IllegalArgumentException),
+                                e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(Collections.emptyList()))));
+    }
+
+    // Live change feed for the signed-in user; after a reconnect, send Last-Event-ID to resume where it left off
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TodoChangeEventDto>> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                                   @AuthenticationPrincipal User user) {
+        return todoService.streamChanges(user.getId(), lastEventId);
+    }
+
+    // Pending / completed / total counts
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<TodoStatsDto>> getStats(@AuthenticationPrincipal User user,
+                                                       ServerWebExchange exchange) {
+        return conditional(user.getId(), todoService.statsVersion(user.getId()), exchange,
+                version -> todoService.getStats(user.getId()).map(ResponseEntity::ok));
+    }
+
+    // Delta sync: only what changed since the version returned by the previous call (since=0 for a full sync)
+    @GetMapping("/changes")
+    public Mono<TodoChangesDto> getChanges(@RequestParam(defaultValue = "0") long since,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit,
+                                           @AuthenticationPrincipal User user) {
+        return todoService.getChanges(user.getId(), since, cursor, limit);
+    }
+
+    // Conditional GET keyed on the user's write version. A matching If-None-Match is answered with 304 before the
+    // read runs; an empty version means the response may not reflect the latest write yet, so no ETag is sent.
+    // The version is read once per request: read gets it replayed, for keying its coalescing or cache on.
+    private static <T> Mono<ResponseEntity<T>> conditional(String userId, Mono<Long> version, ServerWebExchange exchange,
+                                                          Function<Mono<Long>, Mono<ResponseEntity<T>>> read) {
+        Mono<Long> once = version.cache();
+        return once
+                .map(v -> Optional.of("\"" + userId + "-" + v + "\""))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(etag -> {
+                    if (etag.isPresent() && exchange.checkNotModified(etag.get())) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag.get())
+                                .cacheControl(CacheControl.noCache().cachePrivate())
+                                .<T>build());
+                    }
+                    return read.apply(once).map(response -> etag.isEmpty() || !response.getStatusCode().is2xxSuccessful()
+                            ? response
+                            : ResponseEntity.status(response.getStatusCode())
+                                    .headers(response.getHeaders())
+                                    .eTag(etag.get())
+                                    .cacheControl(CacheControl.noCache().cachePrivate())
+                                    .body(response.getBody()));
+                });
+    }
+
+    // The status line is sent with the first item, so a later failure cannot become an error response. It is
+    // written as the last item instead: an "error" event over SSE, a {"error": ...} line over NDJSON.
+    private static Flux<Object> streamed(Flux<TodoResponseDto> items, ServerWebExchange exchange) {
+        boolean sse = exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+        return items.cast(Object.class)
+                .onErrorResume(e -> {
+                    log.warn("Streamed list {} failed", exchange.getRequest().getPath(), e);
+                    StreamErrorDto error = new StreamErrorDto(e.getMessage());
+                    return Mono.just(sse ? ServerSentEvent.builder(error).event("error").build() : error);
+                });
+    }
+
+    private static ResponseEntity<List<TodoResponseDto>> toResponse(TodoPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
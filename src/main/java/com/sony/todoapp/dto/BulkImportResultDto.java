@@ -0,0 +1,31 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the streaming import response, in the same order as the request lines
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResultDto {
+
+    public enum Status { CREATED, REJECTED, FAILED }
+
+    private long index;
+    private Status status;
+    private String id;
+    private String error;
+
+    public static BulkImportResultDto created(long index, String id) {
+        return new BulkImportResultDto(index, Status.CREATED, id, null);
+    }
+
+    public static BulkImportResultDto rejected(long index, String error) {
+        return new BulkImportResultDto(index, Status.REJECTED, null, error);
+    }
+
+    public static BulkImportResultDto failed(long index, String error) {
+        return new BulkImportResultDto(index, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Selects the tasks for PATCH /todo/complete and DELETE /todo: either explicit ids, or a filter
+// (createdBefore for complete: pending tasks created before it; completedBefore for delete: tasks completed before it)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkTodoRequestDto {
+
+    private List<String> ids;
+    private LocalDateTime createdBefore;
+    private LocalDateTime completedBefore;
+}
@@ -0,0 +1,26 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome for one task of a bulk complete or delete; ids that do not exist or belong to someone else are NOT_FOUND
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkTodoResultDto {
+
+    public enum Status { COMPLETED, ALREADY_COMPLETED, DELETED, NOT_FOUND, FAILED }
+
+    private String id;
+    private Status status;
+    private String error;
+
+    public static BulkTodoResultDto of(String id, Status status) {
+        return new BulkTodoResultDto(id, status, null);
+    }
+
+    public static BulkTodoResultDto failed(String id, String error) {
+        return new BulkTodoResultDto(id, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last item of a streamed list that failed part way: the "error" event over SSE, a final line over NDJSON.
+// A stream that ends without one is complete.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreamErrorDto {
+
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of the live change feed (GET /todo/stream)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoChangeEventDto {
+
+    // RESYNC: the feed cannot replay from the client's Last-Event-ID, reload the lists
+    public enum Type { CREATED, UPDATED, COMPLETED, DELETED, RESYNC }
+
+    private Type type;
+    private String todoId;
+
+    // Current state of the task; null for DELETED and RESYNC
+    private TodoResponseDto todo;
+}
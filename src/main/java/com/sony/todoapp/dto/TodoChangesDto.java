@@ -0,0 +1,41 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoChangesDto {
+
+    // Pass back as ?since= on the next call
+    private long version;
+
+    // Created or modified since the requested version, oldest change first
+    private List<TodoResponseDto> changed;
+
+    // Ids deleted since the requested version
+    private List<String> deleted;
+
+    // More changes are waiting; call again right away with the returned version (and cursor, if any)
+    private boolean hasMore;
+
+    // The requested version is older than the retained tombstones (or unknown):
+    // drop local state and sync again from since=0
+    private boolean resyncRequired;
+
+    // Set while a since=0 snapshot is being paged: pass back as ?cursor= together with ?since=0
+    private String cursor;
+
+    public TodoChangesDto(long version, List<TodoResponseDto> changed, List<String> deleted, boolean hasMore,
+                          boolean resyncRequired) {
+        this(version, changed, deleted, hasMore, resyncRequired, null);
+    }
+
+    public static TodoChangesDto resync() {
+        return new TodoChangesDto(0, List.of(), List.of(), false, true);
+    }
+}
@@ -0,0 +1,18 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoPageDto {
+
+    private List<TodoResponseDto> items;
+
+    // null on the last page
+    private String nextCursor;
+}
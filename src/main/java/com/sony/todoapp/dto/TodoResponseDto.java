@@ -17,4 +17,5 @@ public class TodoResponseDto {
     private boolean completed;
     private LocalDateTime createdAt;
     private String userId;
+    private long changeVersion;
 }
@@ -0,0 +1,15 @@
+package com.sony.todoapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoStatsDto {
+
+    private long pending;
+    private long completed;
+    private long total;
+}
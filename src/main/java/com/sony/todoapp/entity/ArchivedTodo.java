@@ -0,0 +1,40 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// A completed todo moved out of the todos collection by TodoArchiveJob; same fields, same id.
+// Only read through GET /todo/completed?include=archive, newest first, so one index is enough.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = ArchivedTodo.COLLECTION)
+@CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+public class ArchivedTodo {
+
+    public static final String COLLECTION = "todos_archive";
+
+    @Id
+    private String id;
+    private String name;
+    private String description;
+    private boolean completed;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String userId;
+    private long changeVersion;
+
+    private Instant archivedAt;
+
+    public static ArchivedTodo of(Todo todo, Instant archivedAt) {
+        return new ArchivedTodo(todo.getId(), todo.getName(), todo.getDescription(), todo.isCompleted(),
+                todo.getCreatedAt(), todo.getCompletedAt(), todo.getUserId(), todo.getChangeVersion(), archivedAt);
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,6 +15,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document (collection = "todos")
+// Keyset pagination: newest first, per user and per user + status; delta sync: per user by change version;
+// archival: completed tasks by completion time, across users
+@CompoundIndexes({
+        @CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_completed_created", def = "{'userId': 1, 'completed': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_version_id", def = "{'userId': 1, 'changeVersion': 1, '_id': 1}"),
+        @CompoundIndex(name = "completed_completedAt", def = "{'completed': 1, 'completedAt': 1}")
+})
 public class Todo {
 
     @Id
@@ -21,5 +31,11 @@ public class Todo {
     private String description;
     private boolean completed;
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Set when the task is completed; null on tasks completed before this field existed
+    private LocalDateTime completedAt;
     private String userId;
+
+    // Per-user version of the last write to this todo (see TodoSyncService)
+    private long changeVersion;
 }
@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Routing;
 
 import java.time.LocalDateTime;
 
@@ -15,7 +16,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Document(indexName = "todos")
+// "todos" is an alias; the mapping comes from the index template installed by TodoIndexManager
+@Document(indexName = "todos", createIndex = false)
+// All of a user's tasks live on one shard, so per-user queries hit a single shard
+@Routing("userId")
 public class TodoEs {
 
     @Id
@@ -33,6 +37,9 @@ public class TodoEs {
     @Field(type = FieldType.Date)
     private LocalDateTime createdAt;
 
-//    @Field(type = FieldType.Keyword)
-//    private String userId;
+    @Field(type = FieldType.Long)
+    private long changeVersion;
+
+    @Field(type = FieldType.Keyword)
+    private String userId;
 }
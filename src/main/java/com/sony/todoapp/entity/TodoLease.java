@@ -0,0 +1,27 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Which app instance currently runs a background job (see TodoLeases); one document per job, keyed by its name.
+// The collection keeps the name it had when it only held the outbox relay's lease, so instances still on the
+// previous release keep seeing that lease during a rolling deploy.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "todo_outbox_lease")
+public class TodoLease {
+
+    @Id
+    private String id;
+
+    private String owner;
+
+    // Another instance may take over once this has passed
+    private Instant expiresAt;
+}
@@ -0,0 +1,46 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Pending Mongo -> Elasticsearch change, written in the same transaction as the Todo itself
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "todo_outbox")
+public class TodoOutboxEvent {
+
+    public enum Type { UPSERT, DELETE }
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String todoId;
+
+    @Indexed
+    private String userId;
+    private Type type;
+
+    @Indexed
+    private Instant createdAt = Instant.now();
+
+    private int attempts;
+
+    // Set while the event is backing off after a failure
+    @Indexed(sparse = true)
+    private Instant nextAttemptAt;
+    private String lastError;
+
+    public TodoOutboxEvent(String todoId, String userId, Type type) {
+        this.todoId = todoId;
+        this.userId = userId;
+        this.type = type;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Per-user task counters, kept up to date with $inc in the same transaction as each write
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "todo_stats")
+public class TodoStats {
+
+    @Id
+    private String userId;
+    private long pending;
+    private long completed;
+}
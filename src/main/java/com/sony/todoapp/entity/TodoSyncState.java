@@ -0,0 +1,36 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Per-user delta sync bookkeeping, keyed by user id
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "todo_sync_state")
+public class TodoSyncState {
+
+    @Id
+    private String userId;
+
+    // Last change version handed out to this user's todos
+    private long version;
+
+    // Tombstones up to this version have been compacted away
+    private long compactedThrough;
+
+    // When version was last bumped
+    private Instant updatedAt;
+
+    // When the search engine last acknowledged one of this user's outbox events (set by TodoOutboxRelay)
+    private Instant indexedAt;
+
+    public TodoSyncState(String userId, long version, long compactedThrough, Instant updatedAt) {
+        this(userId, version, compactedThrough, updatedAt, null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sony.todoapp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Left behind by a delete so delta sync can report it; id is the deleted todo's id
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "todo_tombstones")
+@CompoundIndex(name = "user_version", def = "{'userId': 1, 'version': 1}")
+public class TodoTombstone {
+
+    @Id
+    private String id;
+    private String userId;
+    private long version;
+
+    @Indexed
+    private Instant deletedAt;
+}
@@ -0,0 +1,19 @@
+package com.sony.todoapp.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A filter-mode bulk complete/delete stopped at a failed chunk. The chunks before it stay applied; sending the
+// same request again carries on from there, since the tasks already handled no longer match the filter.
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkOperationFailedException extends RuntimeException {
+
+    private final int applied;
+
+    public BulkOperationFailedException(int applied, Throwable cause) {
+        super("Stopped after " + applied + " tasks: " + cause.getMessage() + "; send the request again to finish", cause);
+        this.applied = applied;
+    }
+}
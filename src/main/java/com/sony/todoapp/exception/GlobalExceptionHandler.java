@@ -1,5 +1,7 @@
 package com.sony.todoapp.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,9 +14,16 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     // Validation errors
     @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<Map<String, String>> handleValidationErrors(WebExchangeBindException ex) {
+        count(ex);
         Map<String, String> errors = new HashMap<>();
         ex.getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
         return ResponseEntity.badRequest().body(errors);
@@ -23,40 +32,74 @@ public class GlobalExceptionHandler {
     // Custom: invalid credentials
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<String> handleInvalidCredentials(InvalidCredentialsException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
     }
 
     // Custom: user already exists
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<String> handleUserExists(UserAlreadyExistsException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
+    // Custom: overloaded, retry later
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> handleTooManyRequests(TooManyRequestsException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    // Custom: filter-mode bulk write stopped part way; safe to send again
+    @ExceptionHandler(BulkOperationFailedException.class)
+    public ResponseEntity<String> handleBulkOperationFailed(BulkOperationFailedException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    // Custom: request body over a size limit
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<String> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(ex.getMessage());
+    }
+
     // JWT/token errors
     @ExceptionHandler(io.jsonwebtoken.JwtException.class)
     public ResponseEntity<String> handleJwtException(io.jsonwebtoken.JwtException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token");
     }
 
     // Illegal state
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<String> handleIllegalState(IllegalStateException ex) {
+        count(ex);
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
     // Catch-all runtime
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntime(RuntimeException ex) {
+        count(ex);
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
 //    Handle all other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleAllExceptions(Exception ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Something went wrong: " + ex.getMessage());
     }
 
+    // todo.exceptions{type}: every exception that reaches this handler, by class
+    private void count(Exception ex) {
+        meterRegistry.counter("todo.exceptions", "type", ex.getClass().getSimpleName()).increment();
+    }
+
 //    // Catch-all fallback
 //    @ExceptionHandler(Exception.class)
 //    public ResponseEntity<String> handleAll(Exception ex) {
@@ -0,0 +1,25 @@
+package com.sony.todoapp.repository;
+
+import com.sony.todoapp.entity.TodoEs;
+import com.sony.todoapp.util.PageCursor;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+// Per-user queries: routed to the user's shard, userId/completed as filters (cached, not scored)
+public interface TodoEsRepositoryCustom {
+
+    // Keyset page ordered by createdAt desc, id desc (search_after); completed/nameKeyword are optional filters
+    Flux<TodoEs> findPage(String userId, Boolean completed, String nameKeyword, PageCursor after, int limit);
+
+    // All of a user's tasks, newest first
+    Flux<TodoEs> searchByUserId(String userId);
+
+    Flux<TodoEs> findByCompletedAndUserId(boolean completed, String userId);
+
+    // Every word of name must prefix-match a word of the task name (name.prefix edge-ngram sub-field)
+    Flux<TodoEs> searchByNameContainingIgnoreCaseAndUserId(String name, String userId);
+
+    // Typeahead: up to limit distinct task names matching prefix, best match first; ES gives up after timeout
+    Flux<String> suggestNames(String userId, String prefix, int limit, Duration timeout);
+}
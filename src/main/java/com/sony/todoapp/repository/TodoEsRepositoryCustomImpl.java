@@ -0,0 +1,99 @@
+package com.sony.todoapp.repository;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.FieldCollapse;
+import com.sony.todoapp.entity.TodoEs;
+import com.sony.todoapp.util.PageCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class TodoEsRepositoryCustomImpl implements TodoEsRepositoryCustom {
+
+    // "id" is the keyword copy of the document id Spring Data keeps in _source (_id itself is not sortable)
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final ReactiveElasticsearchOperations operations;
+
+    @Override
+    public Flux<TodoEs> findPage(String userId, Boolean completed, String nameKeyword, PageCursor after, int limit) {
+        NativeQueryBuilder query = forUser(userId, completed, nameKeyword)
+                .withPageable(PageRequest.of(0, limit));
+        if (after != null) {
+            query.withSearchAfter(List.<Object>of(after.createdAtMillis(), after.id()));
+        }
+        return search(query.build());
+    }
+
+    @Override
+    public Flux<TodoEs> searchByUserId(String userId) {
+        return search(forUser(userId, null, null).build());
+    }
+
+    @Override
+    public Flux<TodoEs> findByCompletedAndUserId(boolean completed, String userId) {
+        return search(forUser(userId, completed, null).build());
+    }
+
+    @Override
+    public Flux<TodoEs> searchByNameContainingIgnoreCaseAndUserId(String name, String userId) {
+        return search(forUser(userId, null, name).build());
+    }
+
+    @Override
+    public Flux<String> suggestNames(String userId, String prefix, int limit, Duration timeout) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.bool(b -> b
+                        .filter(f -> f.term(t -> t.field("userId").value(userId)))
+                        .must(nameMatches(prefix)))))
+                // One hit per distinct (normalized) name
+                .withFieldCollapse(FieldCollapse.of(c -> c.field("name.keyword")))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("name").build())
+                .withPageable(PageRequest.of(0, limit))
+                .withTimeout(timeout)
+                .withRoute(userId)
+                .build();
+
+        return search(query).map(TodoEs::getName);
+    }
+
+    // Match on the edge-ngram sub-field instead of a leading-wildcard query
+    private static Query nameMatches(String text) {
+        return Query.of(q -> q.match(m -> m.field("name.prefix").query(text).operator(Operator.And)));
+    }
+
+    // Unpaged queries are streamed with a scroll by Spring Data
+    private Flux<TodoEs> search(NativeQuery query) {
+        return operations.search(query, TodoEs.class)
+                .map(SearchHit::getContent);
+    }
+
+    private NativeQueryBuilder forUser(String userId, Boolean completed, String nameKeyword) {
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(f -> f.term(t -> t.field("userId").value(userId)));
+        if (completed != null) {
+            bool.filter(f -> f.term(t -> t.field("completed").value(completed)));
+        }
+        if (nameKeyword != null) {
+            bool.must(nameMatches(nameKeyword));
+        }
+
+        return NativeQuery.builder()
+                .withQuery(Query.of(q -> q.bool(bool.build())))
+                .withSort(NEWEST_FIRST)
+                // Documents are routed by userId, so only the user's shard is searched
+                .withRoute(userId);
+    }
+}
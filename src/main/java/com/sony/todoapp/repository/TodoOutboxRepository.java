@@ -0,0 +1,10 @@
+package com.sony.todoapp.repository;
+
+import com.sony.todoapp.entity.TodoOutboxEvent;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface TodoOutboxRepository extends ReactiveMongoRepository<TodoOutboxEvent, String> {
+
+    Mono<Boolean> existsByUserId(String userId);
+}
@@ -6,7 +6,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
-public interface TodoRepository extends ReactiveMongoRepository<Todo, String> {
+public interface TodoRepository extends ReactiveMongoRepository<Todo, String>, TodoRepositoryCustom {
     Flux<Todo> findByNameContainingIgnoreCase(String name, String userId);
 
     Flux<Todo> findByCompleted(boolean completed);
@@ -16,4 +16,7 @@ public interface TodoRepository extends ReactiveMongoRepository<Todo, String> {
     Mono<Todo> findByIdAndUserId(String id, String userId);
 
     Flux<Todo> findByCompletedAndUserId(boolean b, String userId);
+
+    // Fallback for TodoEsRepository.searchByNameContainingIgnoreCaseAndUserId (quoted, case-insensitive regex)
+    Flux<Todo> findByNameContainingIgnoreCaseAndUserId(String name, String userId);
 }
@@ -0,0 +1,18 @@
+package com.sony.todoapp.repository;
+
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.util.PageCursor;
+import reactor.core.publisher.Flux;
+
+public interface TodoRepositoryCustom {
+
+    // Mongo equivalent of TodoEsRepositoryCustom.findPage, served by the (userId, completed, createdAt, _id) index;
+    // nameKeyword is matched as a case-insensitive substring
+    Flux<Todo> findPage(String userId, Boolean completed, String nameKeyword, PageCursor after, int limit);
+
+    // Every todo of the user in the same order as findPage, unpaged (the streaming list endpoints)
+    Flux<Todo> findAllNewestFirst(String userId, Boolean completed);
+
+    // The same page query over the todos_archive collection (archived todos are all completed)
+    Flux<Todo> findArchivedPage(String userId, PageCursor after, int limit);
+}
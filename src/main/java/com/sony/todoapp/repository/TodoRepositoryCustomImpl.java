@@ -0,0 +1,54 @@
+package com.sony.todoapp.repository;
+
+import com.sony.todoapp.entity.ArchivedTodo;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.util.PageCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+    private final ReactiveMongoOperations operations;
+
+    @Override
+    public Flux<Todo> findPage(String userId, Boolean completed, String nameKeyword, PageCursor after, int limit) {
+        return operations.find(pageQuery(userId, completed, nameKeyword, after).limit(limit), Todo.class);
+    }
+
+    @Override
+    public Flux<Todo> findAllNewestFirst(String userId, Boolean completed) {
+        return operations.find(pageQuery(userId, completed, null, null), Todo.class);
+    }
+
+    @Override
+    public Flux<Todo> findArchivedPage(String userId, PageCursor after, int limit) {
+        return operations.find(pageQuery(userId, null, null, after).limit(limit), Todo.class, ArchivedTodo.COLLECTION);
+    }
+
+    private static Query pageQuery(String userId, Boolean completed, String nameKeyword, PageCursor after) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (completed != null) {
+            criteria = criteria.and("completed").is(completed);
+        }
+        if (nameKeyword != null) {
+            criteria = criteria.and("name").regex(Pattern.quote(nameKeyword), "i");
+        }
+        if (after != null) {
+            Object afterId = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(after.createdAt()),
+                    Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(afterId));
+        }
+
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")));
+    }
+}
@@ -1,7 +1,7 @@
 package com.sony.todoapp.security;
 
-import com.sony.todoapp.repository.UserRepository;
-import com.sony.todoapp.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.http.HttpHeaders;
@@ -15,13 +15,33 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
 
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // Cost of authenticating a bearer token (verification + principal lookup)
+    private final Timer authenticated;
+    private final Timer invalidToken;
+    private final Timer unknownUser;
+
+    public JwtAuthenticationFilter(PrincipalCache principalCache, VerifiedTokenCache verifiedTokenCache,
+                                   MeterRegistry meterRegistry) {
+        this.principalCache = principalCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authenticated = authTimer(meterRegistry, "ok");
+        this.invalidToken = authTimer(meterRegistry, "invalid_token");
+        this.unknownUser = authTimer(meterRegistry, "unknown_user");
+    }
 
-    public JwtAuthenticationFilter(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("todo.auth")
+                .description("Bearer token authentication time")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Override
@@ -33,31 +53,34 @@ public class JwtAuthenticationFilter implements WebFilter {
         }
 
         String token = authHeader.substring(7);
+        long start = System.nanoTime();
 
         String userId;
         try {
-            userId = JwtUtil.getUserIdFromToken(token); // validate token
-            if (JwtUtil.isTokenExpired(token)) {
-                return Mono.error(new RuntimeException("JWT token expired"));
-            }
+            userId = verifiedTokenCache.verify(token); // validates signature + expiry, cached per token
         } catch (Exception e) {
+            invalidToken.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             // Instead of Mono.error, return 401 response
             exchange.getResponse().setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
-        return userRepository.findById(userId)
-                .flatMap(user -> {
+        return principalCache.get(userId)
+                .map(user -> {
+                    authenticated.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(user, null, null);
                     return chain.filter(exchange)
                             .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(
                                     Mono.just(new SecurityContextImpl(auth))));
                 })
-                .switchIfEmpty(Mono.defer(() -> {
+                // Unknown user → 401 (decided before running the chain, whose Mono<Void> is always empty)
+                .defaultIfEmpty(Mono.defer(() -> {
+                    unknownUser.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                     exchange.getResponse().setStatusCode(org.springframework.http.HttpStatus.UNAUTHORIZED);
                     return exchange.getResponse().setComplete();
-                }));
+                }))
+                .flatMap(next -> next);
     }
 
 }
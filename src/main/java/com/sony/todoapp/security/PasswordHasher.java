@@ -0,0 +1,85 @@
+package com.sony.todoapp.security;
+
+import com.sony.todoapp.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs BCrypt off the Netty event loop on a fixed pool sized to the CPU count.
+// Work beyond the pool is queued up to queue-limit; past that, callers get a fast
+// TooManyRequestsException (429) instead of every request on the node slowing down.
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${todo.bcrypt.threads:0}") int threads,
+                          @Value("${todo.bcrypt.queue-limit:64}") int queueLimit) {
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "bcrypt");
+
+        Gauge.builder("todo.bcrypt.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("todo.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks running")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("todo.bcrypt")
+                .tag("operation", "encode")
+                .description("BCrypt hashing time")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("todo.bcrypt")
+                .tag("operation", "matches")
+                .description("BCrypt hashing time")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return offload(Mono.fromCallable(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return offload(Mono.fromCallable(() -> matchTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    private <T> Mono<T> offload(Mono<T> work) {
+        return work.subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new TooManyRequestsException("Too many login attempts in progress, try again shortly", 1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.sony.todoapp.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sony.todoapp.entity.User;
+import com.sony.todoapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// TTL cache of authenticated principals in front of UserRepository.findById.
+// Concurrent misses for the same user share one in-flight Mongo lookup (single flight).
+// Entries are dropped when a User is saved or deleted through Spring Data, or via invalidate().
+@Component
+public class PrincipalCache extends AbstractMongoEventListener<User> {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, User> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${todo.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${todo.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=principals
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    // Empty when the user does not exist (misses are not cached)
+    public Mono<User> get(String userId) {
+        return Mono.fromFuture(
+                cache.get(userId, (id, executor) -> userRepository.findById(id).toFuture()),
+                true); // one waiter cancelling must not cancel the shared lookup
+    }
+
+    public void invalidate(String userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        invalidate(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Object id = event.getSource().get("_id");
+        if (id != null) {
+            invalidate(id.toString());
+        } else {
+            invalidateAll(); // delete by arbitrary query
+        }
+    }
+}
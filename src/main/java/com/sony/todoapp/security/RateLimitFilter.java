@@ -0,0 +1,77 @@
+package com.sony.todoapp.security;
+
+import com.sony.todoapp.entity.User;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+// Applies RateLimiter right after JwtAuthenticationFilter in the security chain: /auth/** per client IP,
+// /todo/** per signed-in user (per IP for anonymous callers, who are turned away by authorization anyway).
+// Not a @Component on purpose: WebFlux would also run it as a global filter and every request would count twice.
+public class RateLimitFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+
+        if (path.startsWith("/auth/")) {
+            return limit(RateLimiter.Group.AUTH, "ip:" + clientIp(exchange), exchange, chain);
+        }
+        if (!path.equals("/todo") && !path.startsWith("/todo/")) {
+            return chain.filter(exchange); // static files
+        }
+
+        RateLimiter.Group group = group(exchange.getRequest().getMethod(), path);
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getPrincipal)
+                .filter(User.class::isInstance)
+                .map(principal -> "user:" + ((User) principal).getId())
+                .defaultIfEmpty("ip:" + clientIp(exchange))
+                .flatMap(key -> limit(group, key, exchange, chain));
+    }
+
+    static RateLimiter.Group group(HttpMethod method, String path) {
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return RateLimiter.Group.WRITE;
+        }
+        if (path.startsWith("/todo/search") || path.startsWith("/todo/suggest")) {
+            return RateLimiter.Group.SEARCH;
+        }
+        return RateLimiter.Group.READ;
+    }
+
+    private Mono<Void> limit(RateLimiter.Group group, String key, ServerWebExchange exchange, WebFilterChain chain) {
+        long retryAfter = rateLimiter.acquire(group, key);
+        if (retryAfter == 0) {
+            return chain.filter(exchange);
+        }
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return exchange.getResponse().setComplete();
+    }
+
+    // The peer address; behind a proxy, enable server.forward-headers-strategy so it is the real client's
+    private static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+}
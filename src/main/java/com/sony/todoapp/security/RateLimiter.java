@@ -0,0 +1,101 @@
+package com.sony.todoapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets per route group and caller (user id, or client IP where there is no user).
+// Each bucket is a single AtomicLong updated by CAS (GCRA: it holds the time at which the bucket will be
+// full again), so there is no lock anywhere on the request path. Buckets live in a bounded Caffeine cache
+// per group that forgets a bucket once it has been idle long enough to be full again, so eviction never
+// hands a caller extra tokens.
+@Component
+public class RateLimiter {
+
+    public enum Group { AUTH, WRITE, SEARCH, READ }
+
+    // Burst of capacity requests, refilled at perSecond
+    public record Limit(int capacity, double perSecond) {
+    }
+
+    private final Map<Group, GroupBuckets> groups = new EnumMap<>(Group.class);
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${todo.rate-limit.max-keys:100000}") long maxKeys,
+                       @Value("${todo.rate-limit.auth.capacity:10}") int authCapacity,
+                       @Value("${todo.rate-limit.auth.per-second:0.2}") double authPerSecond,
+                       @Value("${todo.rate-limit.write.capacity:50}") int writeCapacity,
+                       @Value("${todo.rate-limit.write.per-second:10}") double writePerSecond,
+                       @Value("${todo.rate-limit.search.capacity:30}") int searchCapacity,
+                       @Value("${todo.rate-limit.search.per-second:10}") double searchPerSecond,
+                       @Value("${todo.rate-limit.read.capacity:100}") int readCapacity,
+                       @Value("${todo.rate-limit.read.per-second:50}") double readPerSecond) {
+        this(meterRegistry, maxKeys, Map.of(
+                Group.AUTH, new Limit(authCapacity, authPerSecond),
+                Group.WRITE, new Limit(writeCapacity, writePerSecond),
+                Group.SEARCH, new Limit(searchCapacity, searchPerSecond),
+                Group.READ, new Limit(readCapacity, readPerSecond)), System::nanoTime);
+    }
+
+    RateLimiter(MeterRegistry meterRegistry, long maxKeys, Map<Group, Limit> limits, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        limits.forEach((group, limit) -> groups.put(group, new GroupBuckets(group, limit, maxKeys, meterRegistry)));
+    }
+
+    // 0 if the request may proceed, otherwise the whole seconds to wait before retrying (Retry-After)
+    public long acquire(Group group, String key) {
+        GroupBuckets buckets = groups.get(group);
+        return buckets == null ? 0 : buckets.acquire(key, nanoTime.getAsLong());
+    }
+
+    private static final class GroupBuckets {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejected;
+
+        GroupBuckets(Group group, Limit limit, long maxKeys, MeterRegistry meterRegistry) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.perSecond());
+            this.burstNanos = intervalNanos * limit.capacity();
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos))
+                    .build();
+            this.rejected = Counter.builder("todo.ratelimit.rejected")
+                    .description("Requests answered with 429 by the rate limiter")
+                    .tag("group", group.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+
+        long acquire(String key, long now) {
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                long current = fullAt.get();
+                // Taking a token pushes the "full again" time one interval further out
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    rejected.increment();
+                    return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(excess + TimeUnit.SECONDS.toNanos(1) - 1));
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sony.todoapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sony.todoapp.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Bounded cache of bearer tokens that already passed signature verification.
+// Keyed by a SHA-256 digest of the token (raw tokens are never held), and each entry
+// is dropped when the token itself expires, so a hit never accepts an expired token.
+@Component
+public class VerifiedTokenCache {
+
+    private record VerifiedToken(String userId, long expiresAtMillis) {
+    }
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${todo.jwt.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long millisLeft = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // Returns the user id for a valid token; throws JwtException otherwise
+    public String verify(String token) {
+        String key = digest(token);
+
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return cached.userId();
+            }
+            cache.invalidate(key);
+        }
+
+        Claims claims = JwtUtil.verify(token);
+        if (claims.getExpiration() == null) {
+            throw new ExpiredJwtException(null, claims, "JWT token has no expiration");
+        }
+        cache.put(key, new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+        return claims.getSubject();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
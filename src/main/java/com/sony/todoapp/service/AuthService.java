@@ -7,9 +7,10 @@ import com.sony.todoapp.exception.InvalidCredentialsException;
 import com.sony.todoapp.exception.UserAlreadyExistsException;
 import com.sony.todoapp.mapper.UserMapper;
 import com.sony.todoapp.repository.UserRepository;
+import com.sony.todoapp.security.PasswordHasher;
 import com.sony.todoapp.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -18,30 +19,24 @@ import reactor.core.publisher.Mono;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
 
-    // Register a new user
+    // Register a new user: a single insert, the unique username index rejects duplicates
     public Mono<UserResponseDto> register(UserRequestDto dto) {
-        return userRepository.findByUsername(dto.getUsername())
-                // If username exists, error
-                .flatMap(existing -> Mono.<UserResponseDto>error(new UserAlreadyExistsException("Username already exists")))
-                // If username does not exist, save new user
-                .switchIfEmpty(
-                        Mono.defer(() -> {
-                            // Convert DTO -> Entity
-                            User user = UserMapper.toEntity(dto);
-
-                            // Encode password
-                            user.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
-
-                            // Save user and map to response DTO
-                            return userRepository.save(user)
-                                    .map(saved -> {
-                                        String token = JwtUtil.generateToken(saved.getId());
-                                        return UserMapper.toDto(saved, token);
-                                    });
-                        })
-                );
+        // Convert DTO -> Entity
+        User user = UserMapper.toEntity(dto);
+
+        // Encode password (off the event loop), then insert user and map to response DTO
+        return passwordHasher.encode(user.getPassword())
+                .flatMap(hash -> {
+                    user.setPassword(hash);
+                    return userRepository.insert(user);
+                })
+                .onErrorMap(DuplicateKeyException.class, e -> new UserAlreadyExistsException("Username already exists"))
+                .map(saved -> {
+                    String token = JwtUtil.generateToken(saved.getId());
+                    return UserMapper.toDto(saved, token);
+                });
     }
 
 
@@ -49,14 +44,15 @@ public class AuthService {
     public Mono<UserResponseDto> login(UserRequestDto dto) {
         return userRepository.findByUsername(dto.getUsername())
                 .switchIfEmpty(Mono.error(new InvalidCredentialsException("Invalid username or password")))
-                .flatMap(user -> {
-                    if (bCryptPasswordEncoder.matches(dto.getPassword(), user.getPassword())) {
-                        String token = JwtUtil.generateToken(user.getId());
-                        return Mono.just(UserMapper.toDto(user, token));
-                    } else {
-                        return Mono.error(new InvalidCredentialsException("Invalid username or password"));
-                    }
-                });
+                .flatMap(user -> passwordHasher.matches(dto.getPassword(), user.getPassword())
+                        .flatMap(matches -> {
+                            if (matches) {
+                                String token = JwtUtil.generateToken(user.getId());
+                                return Mono.just(UserMapper.toDto(user, token));
+                            } else {
+                                return Mono.error(new InvalidCredentialsException("Invalid username or password"));
+                            }
+                        }));
     }
 
 
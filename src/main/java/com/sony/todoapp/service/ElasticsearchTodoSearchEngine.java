@@ -0,0 +1,84 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.mapper.TodoMapper;
+import com.sony.todoapp.mapper.TodoSearchMapper;
+import com.sony.todoapp.repository.TodoEsRepository;
+import com.sony.todoapp.repository.TodoRepository;
+import com.sony.todoapp.util.PageCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+// Reads from the todos index through TodoReadRouter (Mongo when Elasticsearch is unavailable);
+// writes are batched into _bulk requests by TodoIndexWriter
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ElasticsearchTodoSearchEngine implements TodoSearchEngine {
+
+    private final TodoEsRepository esRepository;
+    private final TodoRepository repository;
+    private final TodoSearchMapper searchMapper;
+    private final TodoMapper mapper;
+    private final TodoReadRouter readRouter;
+    private final TodoIndexWriter indexWriter;
+    private final TodoIndexManager indexManager;
+
+    @Value("${todo.suggest.timeout:150ms}")
+    private Duration suggestTimeout;
+
+    @Override
+    public Mono<Void> initialize() {
+        return indexManager.migrate();
+    }
+
+    @Override
+    public Flux<TodoResponseDto> findAll(String userId, Boolean completed) {
+        if (completed == null) {
+            return readRouter.flux("all",
+                    esRepository.searchByUserId(userId).map(searchMapper::toDto),
+                    repository.findByUserId(userId).map(mapper::toDto));
+        }
+        String operation = completed ? "completed" : "pending";
+        return readRouter.flux(operation,
+                esRepository.findByCompletedAndUserId(completed, userId).map(searchMapper::toDto),
+                repository.findByCompletedAndUserId(completed, userId).map(mapper::toDto));
+    }
+
+    @Override
+    public Flux<TodoResponseDto> search(String userId, String name) {
+        return readRouter.flux("search",
+                esRepository.searchByNameContainingIgnoreCaseAndUserId(name, userId).map(searchMapper::toDto),
+                repository.findByNameContainingIgnoreCaseAndUserId(name, userId).map(mapper::toDto));
+    }
+
+    @Override
+    public Mono<List<TodoResponseDto>> findPage(String userId, Boolean completed, String name, PageCursor after, int limit) {
+        return readRouter.mono(name == null ? "page" : "search-page",
+                esRepository.findPage(userId, completed, name, after, limit).map(searchMapper::toDto).collectList(),
+                repository.findPage(userId, completed, name, after, limit).map(mapper::toDto).collectList());
+    }
+
+    @Override
+    public Flux<String> suggest(String userId, String prefix, int limit) {
+        return esRepository.suggestNames(userId, prefix, limit, suggestTimeout);
+    }
+
+    @Override
+    public Mono<Void> upsert(Todo todo) {
+        return indexWriter.upsert(searchMapper.toEs(todo));
+    }
+
+    @Override
+    public Mono<Void> delete(String todoId, String userId) {
+        return indexWriter.delete(todoId, userId);
+    }
+}
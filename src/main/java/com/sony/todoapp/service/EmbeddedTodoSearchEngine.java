@@ -0,0 +1,404 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.User;
+import com.sony.todoapp.mapper.TodoMapper;
+import com.sony.todoapp.repository.TodoRepository;
+import com.sony.todoapp.util.PageCursor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+// In-process search engine for deployments without Elasticsearch (todo.search.engine=embedded).
+// Each user gets a small inverted index: normalized name tokens -> sorted int posting lists of document
+// slots, kept in a TreeMap so a query word matches every token it is a prefix of (same semantics as the
+// name.prefix edge-ngram field). Only what matching and ordering need is held in memory; the matching
+// tasks themselves are loaded from Mongo by id. Listings without a name filter go straight to Mongo.
+// Built from Mongo at startup (users in parallel) and then kept current by TodoOutboxRelay; the index
+// lives in this JVM, so this engine is meant for a single application instance.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "embedded")
+public class EmbeddedTodoSearchEngine implements TodoSearchEngine {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoRepository repository;
+    private final TodoMapper mapper;
+    private final int rebuildConcurrency;
+
+    private final ConcurrentHashMap<String, UserIndex> users = new ConcurrentHashMap<>();
+
+    public EmbeddedTodoSearchEngine(ReactiveMongoTemplate mongoTemplate,
+                                    TodoRepository repository,
+                                    TodoMapper mapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${todo.search.embedded.rebuild-concurrency:8}") int rebuildConcurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.rebuildConcurrency = rebuildConcurrency;
+
+        Gauge.builder("todo.search.embedded.documents", users,
+                        all -> all.values().stream().mapToInt(UserIndex::size).sum())
+                .description("Tasks held in the embedded search index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> initialize() {
+        Query userIds = new Query();
+        userIds.fields().include("_id");
+
+        return mongoTemplate.find(userIds, User.class)
+                .map(User::getId)
+                .flatMap(userId -> repository.findByUserId(userId)
+                        .collectList()
+                        .doOnNext(todos -> {
+                            UserIndex index = new UserIndex();
+                            todos.forEach(index::put);
+                            users.put(userId, index);
+                        }), rebuildConcurrency)
+                .then()
+                .doOnSuccess(done -> log.info("Embedded search index built for {} users", users.size()));
+    }
+
+    @Override
+    public Flux<TodoResponseDto> findAll(String userId, Boolean completed) {
+        return repository.findAllNewestFirst(userId, completed)
+                .map(mapper::toDto);
+    }
+
+    @Override
+    public Flux<TodoResponseDto> search(String userId, String name) {
+        return Flux.defer(() -> load(index(userId).match(name, null, null, Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public Mono<List<TodoResponseDto>> findPage(String userId, Boolean completed, String name, PageCursor after, int limit) {
+        if (name == null) {
+            return repository.findPage(userId, completed, null, after, limit)
+                    .map(mapper::toDto)
+                    .collectList();
+        }
+        return Flux.defer(() -> load(index(userId).match(name, completed, after, limit)))
+                .collectList();
+    }
+
+    @Override
+    public Flux<String> suggest(String userId, String prefix, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(index(userId).suggest(prefix, limit)));
+    }
+
+    @Override
+    public Mono<Void> upsert(Todo todo) {
+        return Mono.fromRunnable(() -> users.computeIfAbsent(todo.getUserId(), id -> new UserIndex()).put(todo));
+    }
+
+    @Override
+    public Mono<Void> delete(String todoId, String userId) {
+        return Mono.fromRunnable(() -> {
+            UserIndex index = users.get(userId);
+            if (index != null) {
+                index.remove(todoId);
+            }
+        });
+    }
+
+    private UserIndex index(String userId) {
+        UserIndex index = users.get(userId);
+        return index != null ? index : new UserIndex();
+    }
+
+    // Loads the tasks from Mongo, keeping the index's order
+    private Flux<TodoResponseDto> load(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return repository.findAllById(ids)
+                .collectMap(Todo::getId)
+                .flatMapIterable(byId -> ids.stream()
+                        .map(byId::get)
+                        .filter(Objects::nonNull)
+                        .map(mapper::toDto)
+                        .toList());
+    }
+
+    // Lowercased, accent-free words, in order of first appearance
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : NON_WORD.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // One user's index. Documents live in slots (parallel arrays); freed slots are reused.
+    static final class UserIndex {
+
+        private final Map<String, Integer> slotById = new HashMap<>();
+        private final TreeMap<String, IntPostings> terms = new TreeMap<>();
+        private String[] ids = new String[8];
+        private String[] names = new String[8];
+        private long[] createdAt = new long[8];
+        private boolean[] completed = new boolean[8];
+        private int slotCount;
+        private final IntPostings freeSlots = new IntPostings();
+
+        synchronized int size() {
+            return slotById.size();
+        }
+
+        synchronized void put(Todo todo) {
+            Integer existing = slotById.get(todo.getId());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                unindex(slot);
+            } else {
+                slot = allocate();
+                slotById.put(todo.getId(), slot);
+            }
+
+            ids[slot] = todo.getId();
+            names[slot] = todo.getName();
+            createdAt[slot] = todo.getCreatedAt() == null ? 0 : PageCursor.of(todo.getCreatedAt(), todo.getId()).createdAtMillis();
+            completed[slot] = todo.isCompleted();
+            for (String token : tokens(todo.getName())) {
+                terms.computeIfAbsent(token, t -> new IntPostings()).add(slot);
+            }
+        }
+
+        synchronized void remove(String id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unindex(slot);
+            ids[slot] = null;
+            names[slot] = null;
+            freeSlots.add(slot);
+        }
+
+        // Ids of matching documents, newest first; every query word must prefix-match a word of the name
+        synchronized List<String> match(String query, Boolean completedFilter, PageCursor after, int limit) {
+            int[] slots = newestFirst(matching(query),
+                    slot -> (completedFilter == null || completed[slot] == completedFilter)
+                            && (after == null || isAfter(slot, after)),
+                    limit);
+            List<String> matches = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                matches.add(ids[slot]);
+            }
+            return matches;
+        }
+
+        // Distinct names (case-insensitive) of matching documents, newest first
+        synchronized List<String> suggest(String prefix, int limit) {
+            Set<String> seen = new LinkedHashSet<>();
+            List<String> suggestions = new ArrayList<>();
+            for (int slot : newestFirst(matching(prefix), slot -> true, Integer.MAX_VALUE)) {
+                if (suggestions.size() >= limit) {
+                    break;
+                }
+                if (seen.add(names[slot].toLowerCase(Locale.ROOT))) {
+                    suggestions.add(names[slot]);
+                }
+            }
+            return suggestions;
+        }
+
+        private BitSet matching(String query) {
+            Set<String> words = tokens(query);
+            if (words.isEmpty()) {
+                return new BitSet();
+            }
+            BitSet result = null;
+            for (String word : words) {
+                BitSet hits = new BitSet(slotCount);
+                for (IntPostings postings : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    postings.addTo(hits);
+                }
+                if (result == null) {
+                    result = hits;
+                } else {
+                    result.and(hits);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        // The limit newest slots that pass the filter, newest first. A bounded heap with the oldest kept slot on
+        // top holds the candidates, so a page costs O(n log limit) with no boxing; it is then heap-sorted in place.
+        private int[] newestFirst(BitSet slots, IntPredicate filter, int limit) {
+            int[] heap = new int[Math.min(limit, slots.cardinality())];
+            int size = 0;
+            for (int slot = slots.nextSetBit(0); slot >= 0 && heap.length > 0; slot = slots.nextSetBit(slot + 1)) {
+                if (!filter.test(slot)) {
+                    continue;
+                }
+                if (size < heap.length) {
+                    heap[size] = slot;
+                    siftUp(heap, size++);
+                } else if (newer(slot, heap[0])) {
+                    heap[0] = slot;
+                    siftDown(heap, 0, size);
+                }
+            }
+            for (int end = size - 1; end > 0; end--) {
+                int oldest = heap[0];
+                heap[0] = heap[end];
+                heap[end] = oldest;
+                siftDown(heap, 0, end);
+            }
+            return size == heap.length ? heap : Arrays.copyOf(heap, size);
+        }
+
+        // Order of (createdAt desc, id desc)
+        private boolean newer(int slot, int other) {
+            return createdAt[slot] > createdAt[other]
+                    || (createdAt[slot] == createdAt[other] && ids[slot].compareTo(ids[other]) > 0);
+        }
+
+        private void siftUp(int[] heap, int at) {
+            while (at > 0) {
+                int parent = (at - 1) / 2;
+                if (!newer(heap[parent], heap[at])) {
+                    return;
+                }
+                int slot = heap[at];
+                heap[at] = heap[parent];
+                heap[parent] = slot;
+                at = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int at, int size) {
+            while (true) {
+                int oldest = at;
+                for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+                    if (newer(heap[oldest], heap[child])) {
+                        oldest = child;
+                    }
+                }
+                if (oldest == at) {
+                    return;
+                }
+                int slot = heap[at];
+                heap[at] = heap[oldest];
+                heap[oldest] = slot;
+                at = oldest;
+            }
+        }
+
+        // Keyset condition of (createdAt desc, id desc)
+        private boolean isAfter(int slot, PageCursor after) {
+            return createdAt[slot] < after.createdAtMillis()
+                    || (createdAt[slot] == after.createdAtMillis() && ids[slot].compareTo(after.id()) < 0);
+        }
+
+        private void unindex(int slot) {
+            for (String token : tokens(names[slot])) {
+                IntPostings postings = terms.get(token);
+                if (postings != null) {
+                    postings.remove(slot);
+                    if (postings.isEmpty()) {
+                        terms.remove(token);
+                    }
+                }
+            }
+        }
+
+        private int allocate() {
+            if (!freeSlots.isEmpty()) {
+                return freeSlots.removeLast();
+            }
+            if (slotCount == ids.length) {
+                int capacity = slotCount * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                completed = Arrays.copyOf(completed, capacity);
+            }
+            return slotCount++;
+        }
+    }
+
+    // Sorted, duplicate-free set of slots on a plain int[]
+    static final class IntPostings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+                size--;
+            }
+        }
+
+        int removeLast() {
+            return slots[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(slots[i]);
+            }
+        }
+    }
+}
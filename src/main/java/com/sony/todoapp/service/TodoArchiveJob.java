@@ -0,0 +1,170 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.ArchivedTodo;
+import com.sony.todoapp.entity.Todo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Background job that moves completed todos older than todo.archive.after from todos to todos_archive.
+// It works in batches of batch-size with batch-delay between them, so it never competes hard with user traffic.
+// Each user's share of a batch moves in one transaction: insert into the archive, delete from todos, a DELETE
+// outbox event per todo (which drops it from the search index) and a tombstone for delta sync. The counters
+// behind /todo/stats are left alone: archived tasks still count as completed (TodoStatsRepairJob counts both).
+// A run holds the "archive" lease (TodoLeases), so two instances never move the same todos at once.
+@Slf4j
+@Component
+public class TodoArchiveJob {
+
+    private static final String LEASE_ID = "archive";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final TodoOutboxService outboxService;
+    private final TodoSyncService syncService;
+    private final TodoLeases leases;
+    private final boolean enabled;
+    private final Duration after;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration batchDelay;
+    private final Duration lease;
+    private final Counter archived;
+
+    private Disposable subscription;
+
+    public TodoArchiveJob(ReactiveMongoTemplate mongoTemplate,
+                          TransactionalOperator transactionalOperator,
+                          TodoOutboxService outboxService,
+                          TodoSyncService syncService,
+                          TodoLeases leases,
+                          MeterRegistry meterRegistry,
+                          @Value("${todo.archive.enabled:true}") boolean enabled,
+                          @Value("${todo.archive.after:90d}") Duration after,
+                          @Value("${todo.archive.interval:1h}") Duration interval,
+                          @Value("${todo.archive.batch-size:500}") int batchSize,
+                          @Value("${todo.archive.batch-delay:1s}") Duration batchDelay,
+                          @Value("${todo.archive.lease:1m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionalOperator = transactionalOperator;
+        this.outboxService = outboxService;
+        this.syncService = syncService;
+        this.leases = leases;
+        this.enabled = enabled;
+        this.after = after;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+        this.lease = lease;
+        this.archived = Counter.builder("todo.archive.archived")
+                .description("Completed todos moved to todos_archive")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> leases.runExclusively(LEASE_ID, lease, interval, archiveAll())
+                        .doOnNext(moved -> {
+                            if (moved > 0) {
+                                log.info("Archived {} todos completed more than {} ago", moved, after);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Todo archival failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        // Hand the lease over right away instead of letting it expire
+        leases.release(LEASE_ID)
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+    }
+
+    // Emits the number of todos archived. Stops after a short batch (nothing left) or a batch in which
+    // nothing could be moved (it would only pick the same todos again; they are retried next run).
+    Mono<Long> archiveAll() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(after);
+        return Mono.defer(() -> archiveBatch(cutoff))
+                .repeatWhen(batches -> batches.delayElements(batchDelay))
+                .takeUntil(batch -> batch.selected() < batchSize || batch.moved() == 0)
+                .map(Batch::moved)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Batch> archiveBatch(LocalDateTime cutoff) {
+        Query candidates = Query.query(TodoService.completedBefore(cutoff)).limit(batchSize);
+        candidates.fields().include("_id", "userId");
+
+        return mongoTemplate.find(candidates, Todo.class)
+                .collectList()
+                .flatMap(found -> {
+                    Map<String, List<String>> idsByUser = found.stream()
+                            .collect(Collectors.groupingBy(Todo::getUserId,
+                                    Collectors.mapping(Todo::getId, Collectors.toList())));
+                    return Flux.fromIterable(idsByUser.entrySet())
+                            .concatMap(user -> archiveUser(user.getKey(), user.getValue()))
+                            .reduce(0L, Long::sum)
+                            .map(moved -> new Batch(found.size(), moved));
+                });
+    }
+
+    private Mono<Long> archiveUser(String userId, List<String> ids) {
+        // Re-read inside the transaction: a todo deleted since the batch was selected is simply skipped
+        Query own = Query.query(Criteria.where("_id").in(ids).and("userId").is(userId).and("completed").is(true));
+
+        return mongoTemplate.find(own, Todo.class)
+                .collectList()
+                .flatMap(todos -> {
+                    if (todos.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    Instant now = Instant.now();
+                    List<String> todoIds = todos.stream().map(Todo::getId).toList();
+                    return mongoTemplate.insertAll(todos.stream().map(todo -> ArchivedTodo.of(todo, now)).toList())
+                            .then(mongoTemplate.remove(Query.query(Criteria.where("_id").in(todoIds).and("userId").is(userId)), Todo.class))
+                            .then(outboxService.recordDeletes(todoIds, userId))
+                            .then(syncService.recordDeletes(todoIds, userId))
+                            .thenReturn((long) todos.size());
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(archived::increment)
+                .onErrorResume(e -> {
+                    log.debug("Skipping archival for user {} this run", userId, e);
+                    return Mono.just(0L);
+                });
+    }
+
+    private record Batch(int selected, long moved) {
+    }
+}
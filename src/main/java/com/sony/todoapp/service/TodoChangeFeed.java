@@ -0,0 +1,321 @@
+package com.sony.todoapp.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.sony.todoapp.dto.TodoChangeEventDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.mapper.TodoMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-user live change feed behind GET /todo/stream.
+// One change stream on the todos collection is shared by the whole instance and fanned out in-process
+// to each user's subscribers. Every subscriber has a bounded buffer; a subscriber that falls behind is
+// completed (dropped) and is expected to reconnect with Last-Event-ID. The last replay-size events are
+// kept so such reconnects can be replayed from memory. Any other Last-Event-ID (older, or issued by another
+// instance) is resumed from Mongo: the subscriber gets its own change stream, filtered to its todos and
+// resumed after that token. Only if Mongo no longer has the token does the client get a RESYNC event.
+// Delete events need the pre-image to know the owner, so pre-images are enabled on the collection.
+@Slf4j
+@Component
+public class TodoChangeFeed {
+
+    private record FeedEvent(String token, String userId, TodoChangeEventDto payload) {
+    }
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoMapper mapper;
+    private final String collectionName;
+    private final Duration heartbeat;
+    private final int bufferSize;
+    private final int replaySize;
+
+    private final Object lock = new Object();
+    private final Map<String, Set<Sinks.Many<FeedEvent>>> subscribers = new HashMap<>();
+    private final ArrayDeque<FeedEvent> recent = new ArrayDeque<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter dropped;
+
+    private volatile BsonValue lastToken;
+    private Disposable subscription;
+
+    public TodoChangeFeed(ReactiveMongoTemplate mongoTemplate,
+                          TodoMapper mapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${todo.stream.heartbeat:15s}") Duration heartbeat,
+                          @Value("${todo.stream.buffer-size:256}") int bufferSize,
+                          @Value("${todo.stream.replay-size:1000}") int replaySize) {
+        this.mongoTemplate = mongoTemplate;
+        this.mapper = mapper;
+        this.collectionName = mongoTemplate.getCollectionName(Todo.class);
+        this.heartbeat = heartbeat;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+
+        Gauge.builder("todo.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open /todo/stream connections")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("todo.stream.dropped")
+                .description("Subscribers disconnected because their buffer overflowed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = enablePreImages()
+                .thenMany(Flux.defer(this::watch))
+                // Resumes after the last seen token, so a dropped cursor loses nothing
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Todo change stream failed, reconnecting", signal.failure())))
+                .subscribe(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    // Replays events after lastEventId (if given), then streams live events, with heartbeat comments in between
+    public Flux<ServerSentEvent<TodoChangeEventDto>> subscribe(String userId, String lastEventId) {
+        return Flux.defer(() -> {
+            List<FeedEvent> replay;
+            Sinks.Many<FeedEvent> sink = null;
+            synchronized (lock) {
+                replay = lastEventId == null ? List.of() : replayAfter(userId, lastEventId);
+                if (replay != null) {
+                    sink = register(userId);
+                }
+            }
+            subscriberCount.incrementAndGet();
+
+            Flux<ServerSentEvent<TodoChangeEventDto>> events;
+            if (sink != null) {
+                Sinks.Many<FeedEvent> registered = sink;
+                events = Flux.concat(Flux.fromIterable(replay), registered.asFlux())
+                        .map(this::toSse)
+                        .doFinally(signal -> unsubscribe(userId, registered));
+            } else {
+                events = resume(userId, lastEventId)
+                        .map(this::toSse)
+                        .onErrorResume(e -> {
+                            log.info("Cannot resume change stream after {}; sending RESYNC", lastEventId, e);
+                            return Flux.concat(Flux.just(resync()), live(userId));
+                        });
+            }
+
+            return events
+                    .publish(shared -> Flux.merge(shared, Flux.interval(heartbeat)
+                            .map(tick -> ServerSentEvent.<TodoChangeEventDto>builder().comment("heartbeat").build())
+                            .takeUntilOther(shared.then())))
+                    .doFinally(signal -> subscriberCount.decrementAndGet());
+        });
+    }
+
+    private Mono<Void> enablePreImages() {
+        return mongoTemplate.collectionExists(collectionName)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : mongoTemplate.createCollection(collectionName).then())
+                .then(mongoTemplate.executeCommand(new Document("collMod", collectionName)
+                        .append("changeStreamPreAndPostImages", new Document("enabled", true))))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Could not enable change stream pre-images on {}; DELETED events will be skipped", collectionName, e);
+                    return Mono.empty();
+                });
+    }
+
+    // This user's changes straight from Mongo, after the given token. The stream stays open, so the client keeps
+    // reading from it until it disconnects; its next reconnect normally lands in the replay window again.
+    private Flux<FeedEvent> resume(String userId, String lastEventId) {
+        ChangeStreamOptions options = ChangeStreamOptions.builder()
+                .filter(new Document("$match", new Document("$or", List.of(
+                        new Document("fullDocument.userId", userId),
+                        new Document("fullDocumentBeforeChange.userId", userId)))))
+                .returnFullDocumentOnUpdate()
+                .fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .resumeAfter(new BsonDocument("_data", new BsonString(lastEventId)))
+                .build();
+
+        return mongoTemplate.changeStream(collectionName, options, Todo.class)
+                .mapNotNull(this::toFeedEvent);
+    }
+
+    // Live events from the shared stream only, registered on subscription
+    private Flux<ServerSentEvent<TodoChangeEventDto>> live(String userId) {
+        return Flux.defer(() -> {
+            Sinks.Many<FeedEvent> sink;
+            synchronized (lock) {
+                sink = register(userId);
+            }
+            return sink.asFlux()
+                    .map(this::toSse)
+                    .doFinally(signal -> unsubscribe(userId, sink));
+        });
+    }
+
+    // Caller holds lock
+    private Sinks.Many<FeedEvent> register(String userId) {
+        Sinks.Many<FeedEvent> sink = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(userId, id -> new HashSet<>()).add(sink);
+        return sink;
+    }
+
+    private Flux<FeedEvent> watch() {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .returnFullDocumentOnUpdate()
+                .fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        if (lastToken != null) {
+            options.resumeAfter(lastToken);
+        }
+
+        return mongoTemplate.changeStream(collectionName, options.build(), Todo.class)
+                .doOnNext(event -> lastToken = event.getResumeToken())
+                .mapNotNull(this::toFeedEvent);
+    }
+
+    private FeedEvent toFeedEvent(ChangeStreamEvent<Todo> event) {
+        if (event.getOperationType() == null || event.getResumeToken() == null) {
+            return null;
+        }
+        String token = event.getResumeToken().asDocument().getString("_data").getValue();
+
+        switch (event.getOperationType()) {
+            case INSERT -> {
+                Todo todo = event.getBody();
+                return todo == null ? null : feedEvent(token, TodoChangeEventDto.Type.CREATED, todo);
+            }
+            case UPDATE, REPLACE -> {
+                Todo todo = event.getBody();
+                if (todo == null) {
+                    return null;
+                }
+                ChangeStreamDocument<Document> raw = event.getRaw();
+                boolean completedNow = todo.isCompleted() && raw != null && raw.getUpdateDescription() != null
+                        && raw.getUpdateDescription().getUpdatedFields() != null
+                        && raw.getUpdateDescription().getUpdatedFields().containsKey("completed");
+                return feedEvent(token, completedNow ? TodoChangeEventDto.Type.COMPLETED : TodoChangeEventDto.Type.UPDATED, todo);
+            }
+            case DELETE -> {
+                Todo before = event.getBodyBeforeChange();
+                if (before == null) {
+                    return null; // no pre-image, owner unknown
+                }
+                return new FeedEvent(token, before.getUserId(),
+                        new TodoChangeEventDto(TodoChangeEventDto.Type.DELETED, before.getId(), null));
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private FeedEvent feedEvent(String token, TodoChangeEventDto.Type type, Todo todo) {
+        return new FeedEvent(token, todo.getUserId(), new TodoChangeEventDto(type, todo.getId(), mapper.toDto(todo)));
+    }
+
+    private void publish(FeedEvent event) {
+        List<Sinks.Many<FeedEvent>> slow = new ArrayList<>();
+        synchronized (lock) {
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+
+            Set<Sinks.Many<FeedEvent>> sinks = subscribers.get(event.userId());
+            if (sinks != null) {
+                // A sink that rejects an event is removed right away, so it is dropped (and counted) only once
+                for (Iterator<Sinks.Many<FeedEvent>> it = sinks.iterator(); it.hasNext(); ) {
+                    Sinks.Many<FeedEvent> sink = it.next();
+                    Sinks.EmitResult result = sink.tryEmitNext(event);
+                    if (result.isFailure()) {
+                        it.remove();
+                        if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                            slow.add(sink);
+                        }
+                    }
+                }
+                if (sinks.isEmpty()) {
+                    subscribers.remove(event.userId());
+                }
+            }
+        }
+
+        // Buffer full: end the stream after what is already queued; the client resumes via Last-Event-ID
+        for (Sinks.Many<FeedEvent> sink : slow) {
+            dropped.increment();
+            sink.tryEmitComplete();
+        }
+    }
+
+    // Events for this user after the given token, or null if the token has already left the replay window
+    private List<FeedEvent> replayAfter(String userId, String lastEventId) {
+        List<FeedEvent> replay = new ArrayList<>();
+        boolean found = false;
+        for (FeedEvent event : recent) {
+            if (found) {
+                if (event.userId().equals(userId)) {
+                    replay.add(event);
+                }
+            } else if (event.token().equals(lastEventId)) {
+                found = true;
+            }
+        }
+        return found ? replay : null;
+    }
+
+    private void unsubscribe(String userId, Sinks.Many<FeedEvent> sink) {
+        synchronized (lock) {
+            Set<Sinks.Many<FeedEvent>> sinks = subscribers.get(userId);
+            if (sinks != null && sinks.remove(sink) && sinks.isEmpty()) {
+                subscribers.remove(userId);
+            }
+        }
+    }
+
+    private ServerSentEvent<TodoChangeEventDto> resync() {
+        return ServerSentEvent.builder(new TodoChangeEventDto(TodoChangeEventDto.Type.RESYNC, null, null))
+                .event(TodoChangeEventDto.Type.RESYNC.name())
+                .build();
+    }
+
+    private ServerSentEvent<TodoChangeEventDto> toSse(FeedEvent event) {
+        return ServerSentEvent.builder(event.payload())
+                .id(event.token())
+                .event(event.payload().getType().name())
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sony.todoapp.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoEs;
+import com.sony.todoapp.mapper.TodoSearchMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Owns the layout of the todos index.
+// The mapping lives in the "todos" index template (resources/elasticsearch/todos-template.json) and applies to
+// versioned indices todos-vN; the application only ever talks to the "todos" alias. On startup the template is
+// (re)installed and, if the alias does not point at todos-v{INDEX_VERSION} yet, that index is created, filled
+// from Mongo and the alias is switched over in one atomic call (a legacy concrete "todos" index is dropped then).
+// Runs as ElasticsearchTodoSearchEngine.initialize(): the outbox relay only starts afterwards, so writes made
+// during the rebuild are replayed into the new index.
+// Older todos-vN indices are kept for rollback and can be deleted by hand.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
+public class TodoIndexManager {
+
+    // Bump together with todos-template.json to migrate to a new mapping
+    static final int INDEX_VERSION = 2;
+
+    private final ElasticsearchClient client;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoSearchMapper searchMapper;
+    private final String alias;
+    private final String index;
+    private final int batchSize;
+    private final int concurrency;
+
+    public TodoIndexManager(ElasticsearchClient client,
+                            ReactiveElasticsearchOperations operations,
+                            ReactiveMongoTemplate mongoTemplate,
+                            TodoSearchMapper searchMapper,
+                            @Value("${todo.index.rebuild-batch-size:500}") int batchSize,
+                            @Value("${todo.index.rebuild-concurrency:4}") int concurrency) {
+        this.client = client;
+        this.mongoTemplate = mongoTemplate;
+        this.searchMapper = searchMapper;
+        this.alias = operations.getIndexCoordinatesFor(TodoEs.class).getIndexName();
+        this.index = alias + "-v" + INDEX_VERSION;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    Mono<Void> migrate() {
+        return blocking(() -> {
+                    putTemplate();
+                    return client.indices().existsAlias(a -> a.name(alias).index(index)).value();
+                })
+                .flatMap(current -> {
+                    if (current) {
+                        return Mono.<Void>empty();
+                    }
+                    log.info("Building index {} from Mongo", index);
+                    return blocking(this::createIndex)
+                            .then(rebuild())
+                            .flatMap(count -> blocking(this::switchAlias)
+                                    .doOnSuccess(done -> log.info("Indexed {} todos into {}, alias {} switched", count, index, alias)))
+                            .then();
+                });
+    }
+
+    private void putTemplate() throws Exception {
+        try (InputStream json = new ClassPathResource("elasticsearch/todos-template.json").getInputStream()) {
+            client.indices().putIndexTemplate(t -> t.name(alias).withJson(json));
+        }
+    }
+
+    private Boolean createIndex() throws Exception {
+        if (!client.indices().exists(e -> e.index(index)).value()) {
+            client.indices().create(c -> c.index(index));
+        }
+        return true;
+    }
+
+    // Streams every todo from Mongo into the new index in parallel bulk requests; emits the number indexed
+    private Mono<Long> rebuild() {
+        Query owned = Query.query(Criteria.where("userId").ne(null));
+
+        return mongoTemplate.find(owned, Todo.class)
+                .map(searchMapper::toEs)
+                .buffer(batchSize)
+                .flatMap(batch -> blocking(() -> client.bulk(toBulkRequest(batch))).map(this::checked), concurrency)
+                .reduce(0L, Long::sum);
+    }
+
+    private BulkRequest toBulkRequest(List<TodoEs> batch) {
+        BulkRequest.Builder request = new BulkRequest.Builder().index(index);
+        for (TodoEs doc : batch) {
+            request.operations(o -> o.index(i -> i.id(doc.getId()).routing(doc.getUserId()).document(doc)));
+        }
+        return request.build();
+    }
+
+    private long checked(BulkResponse response) {
+        if (response.errors()) {
+            throw new IllegalStateException("Bulk indexing into " + index + " failed: " + response.items().stream()
+                    .filter(item -> item.error() != null)
+                    .findFirst()
+                    .map(item -> item.error().reason())
+                    .orElse("unknown error"));
+        }
+        return response.items().size();
+    }
+
+    private Boolean switchAlias() throws Exception {
+        List<Action> actions = new ArrayList<>();
+        boolean aliasExists = client.indices().existsAlias(a -> a.name(alias)).value();
+        if (aliasExists) {
+            actions.add(Action.of(a -> a.remove(r -> r.index(alias + "-v*").alias(alias))));
+        } else if (client.indices().exists(e -> e.index(alias)).value()) {
+            // Index created before the template existed: it has to go for the alias to take its name
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+        }
+        actions.add(Action.of(a -> a.add(add -> add.index(index).alias(alias).isWriteIndex(true))));
+
+        client.indices().updateAliases(u -> u.actions(actions));
+        return true;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,271 @@
+package com.sony.todoapp.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.sony.todoapp.entity.TodoEs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Shared write path into the todos index.
+// Upserts and deletes are buffered and coalesced per id (only the last change for an id is sent),
+// then flushed through the _bulk API once flush-size ops are waiting or every flush-interval.
+// Flushes run one at a time so changes to the same id are applied in the order they were queued.
+// Memory is bounded by max-pending: when the buffer is full, callers wait for the next flush.
+// Each returned Mono completes once the change is acknowledged by Elasticsearch.
+// On shutdown, close() keeps flushing until the buffer is empty, for at most close-timeout.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
+public class TodoIndexWriter {
+
+    private final ElasticsearchClient client;
+    private final String indexName;
+    private final int flushSize;
+    private final int maxPending;
+    private final Duration closeTimeout;
+
+    private final Object lock = new Object();
+    private LinkedHashMap<String, PendingOp> buffer = new LinkedHashMap<>();
+    private Sinks.Empty<Void> nextFlush = Sinks.empty();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private final Counter coalesced;
+    private final DistributionSummary batchSize;
+    private final Disposable ticker;
+
+    public TodoIndexWriter(ElasticsearchClient client,
+                           ReactiveElasticsearchOperations operations,
+                           MeterRegistry meterRegistry,
+                           @Value("${todo.index-writer.flush-size:500}") int flushSize,
+                           @Value("${todo.index-writer.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${todo.index-writer.max-pending:10000}") int maxPending,
+                           @Value("${todo.index-writer.close-timeout:10s}") Duration closeTimeout) {
+        this.client = client;
+        this.indexName = operations.getIndexCoordinatesFor(TodoEs.class).getIndexName();
+        this.flushSize = flushSize;
+        this.maxPending = maxPending;
+        this.closeTimeout = closeTimeout;
+
+        Gauge.builder("todo.index.pending", this, TodoIndexWriter::pending)
+                .description("Index operations waiting for the next bulk flush")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("todo.index.coalesced")
+                .description("Index operations replaced by a newer change to the same todo before flushing")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("todo.index.bulk.size")
+                .description("Operations per _bulk request")
+                .register(meterRegistry);
+
+        this.ticker = Flux.interval(flushInterval)
+                .subscribe(tick -> requestFlush());
+    }
+
+    public Mono<Void> upsert(TodoEs doc) {
+        return enqueue(doc.getId(), doc.getUserId(), doc);
+    }
+
+    // userId is the routing key the document was indexed with
+    public Mono<Void> delete(String id, String userId) {
+        return enqueue(id, userId, null);
+    }
+
+    @PreDestroy
+    public void close() {
+        ticker.dispose();
+        closed = true;
+
+        long deadline = System.nanoTime() + closeTimeout.toNanos();
+        while (pending() > 0 || flushing.get()) {
+            Mono<Void> flushed;
+            synchronized (lock) {
+                flushed = nextFlush.asMono();
+            }
+            requestFlush();
+
+            long left = deadline - System.nanoTime();
+            boolean done = left > 0 && flushed.thenReturn(true)
+                    .timeout(Duration.ofNanos(left), Mono.just(false))
+                    .block();
+            if (!done) {
+                log.warn("Closing with {} index operations not flushed to {} after {}", pending(), indexName, closeTimeout);
+                return;
+            }
+        }
+    }
+
+    int pending() {
+        synchronized (lock) {
+            return buffer.size();
+        }
+    }
+
+    private Mono<Void> enqueue(String id, String routing, TodoEs doc) {
+        return Mono.defer(() -> {
+            Sinks.One<Void> ack = Sinks.one();
+            Mono<Void> waitForRoom;
+            int size;
+
+            synchronized (lock) {
+                PendingOp existing = buffer.get(id);
+                if (existing != null) {
+                    existing.doc = doc;
+                    existing.waiters.add(ack);
+                    coalesced.increment();
+                    size = buffer.size();
+                    waitForRoom = null;
+                } else if (buffer.size() >= maxPending) {
+                    waitForRoom = nextFlush.asMono();
+                    size = buffer.size();
+                } else {
+                    buffer.put(id, new PendingOp(doc, routing, ack));
+                    size = buffer.size();
+                    waitForRoom = null;
+                }
+            }
+
+            if (size >= flushSize) {
+                requestFlush();
+            }
+            if (waitForRoom != null) {
+                // Buffer full: retry once the in-flight flush has drained it
+                return waitForRoom.onErrorResume(e -> Mono.empty()).then(enqueue(id, routing, doc));
+            }
+            return ack.asMono();
+        });
+    }
+
+    private void requestFlush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return; // the running flush re-checks the buffer when it finishes
+        }
+
+        Map<String, PendingOp> batch;
+        Sinks.Empty<Void> flushed;
+        synchronized (lock) {
+            batch = take(flushSize);
+            flushed = nextFlush;
+            nextFlush = Sinks.empty();
+        }
+
+        if (batch.isEmpty()) {
+            flushing.set(false);
+            flushed.tryEmitEmpty();
+            return;
+        }
+
+        Mono.fromCallable(() -> client.bulk(toBulkRequest(batch)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(
+                        response -> {
+                            acknowledge(batch, response);
+                            finishFlush(flushed);
+                        },
+                        error -> {
+                            log.warn("Bulk flush of {} operations to {} failed", batch.size(), indexName, error);
+                            batch.values().forEach(op -> op.fail(error));
+                            finishFlush(flushed);
+                        });
+    }
+
+    private void finishFlush(Sinks.Empty<Void> flushed) {
+        flushing.set(false);
+        flushed.tryEmitEmpty();
+        // While closing, always go again: an empty buffer just completes the flush close() is waiting on
+        if (closed || pending() >= flushSize) {
+            requestFlush();
+        }
+    }
+
+    // Removes up to max ops from the head of the buffer; caller holds the lock
+    private Map<String, PendingOp> take(int max) {
+        if (buffer.size() <= max) {
+            LinkedHashMap<String, PendingOp> all = buffer;
+            buffer = new LinkedHashMap<>();
+            return all;
+        }
+        LinkedHashMap<String, PendingOp> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, PendingOp>> it = buffer.entrySet().iterator();
+        while (batch.size() < max) {
+            Map.Entry<String, PendingOp> entry = it.next();
+            batch.put(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private BulkRequest toBulkRequest(Map<String, PendingOp> batch) {
+        batchSize.record(batch.size());
+        BulkRequest.Builder request = new BulkRequest.Builder().index(indexName);
+        batch.forEach((id, op) -> {
+            if (op.doc != null) {
+                TodoEs doc = op.doc;
+                request.operations(o -> o.index(i -> i.id(id).routing(op.routing).document(doc)));
+            } else {
+                request.operations(o -> o.delete(d -> d.id(id).routing(op.routing)));
+            }
+        });
+        return request.build();
+    }
+
+    private void acknowledge(Map<String, PendingOp> batch, BulkResponse response) {
+        Map<String, BulkResponseItem> items = new HashMap<>();
+        response.items().forEach(item -> items.put(item.id(), item));
+
+        batch.forEach((id, op) -> {
+            BulkResponseItem item = items.get(id);
+            if (item == null) {
+                op.fail(new IllegalStateException("No bulk response for todo " + id));
+            } else if (item.error() == null || item.status() == 404) {
+                // Deleting a document that is already gone still counts as applied
+                op.succeed();
+            } else {
+                op.fail(new IllegalStateException("Indexing todo " + id + " failed: " + item.error().reason()));
+            }
+        });
+    }
+
+    private static final class PendingOp {
+        private TodoEs doc; // null means delete
+        private final String routing;
+        private final List<Sinks.One<Void>> waiters = new ArrayList<>(1);
+
+        PendingOp(TodoEs doc, String routing, Sinks.One<Void> waiter) {
+            this.doc = doc;
+            this.routing = routing;
+            this.waiters.add(waiter);
+        }
+
+        void succeed() {
+            waiters.forEach(Sinks.One::tryEmitEmpty);
+        }
+
+        void fail(Throwable error) {
+            waiters.forEach(waiter -> waiter.tryEmitError(error));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.TodoLease;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+// Named Mongo leases for the background jobs every app instance runs (outbox relay, tombstone compaction,
+// counter repair, archival), so each job runs on one instance at a time. A lease is one document in
+// todo_outbox_lease, taken or renewed with an atomic upsert; it lapses if its owner stops renewing it.
+@Component
+public class TodoLeases {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public TodoLeases(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Takes the lease if it is free or expired, renews it for another duration if already ours; false while
+    // another instance holds it
+    public Mono<Boolean> acquire(String name, Duration duration) {
+        Instant now = Instant.now();
+        Query ours = Query.query(Criteria.where("_id").is(name).orOperator(
+                Criteria.where("owner").is(instanceId),
+                Criteria.where("expiresAt").lt(now)));
+
+        return mongoTemplate.findAndModify(ours,
+                        new Update().set("owner", instanceId).set("expiresAt", now.plus(duration)),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        TodoLease.class)
+                .map(held -> true)
+                // The upsert collides with the live lease document of another instance
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+                .defaultIfEmpty(false);
+    }
+
+    // Runs work on this instance only if it can take the lease, renewing it every third of duration meanwhile;
+    // work is cancelled as soon as a renewal fails, since another instance may then take over. Once work is done
+    // the lease is kept for keep, so the other instances skip their own runs until then. Empty when not run.
+    public <T> Mono<T> runExclusively(String name, Duration duration, Duration keep, Mono<T> work) {
+        return acquire(name, duration).flatMap(held -> {
+            if (!held) {
+                return Mono.empty();
+            }
+            Mono<Boolean> lost = Flux.interval(duration.dividedBy(3))
+                    .concatMap(tick -> acquire(name, duration).onErrorReturn(false))
+                    .filter(renewed -> !renewed)
+                    .next();
+            return work.takeUntilOther(lost)
+                    .flatMap(result -> acquire(name, keep).onErrorReturn(false).thenReturn(result));
+        });
+    }
+
+    // Hands the lease over right away instead of letting it expire; a no-op unless it is ours
+    public Mono<Void> release(String name) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(name).and("owner").is(instanceId)), TodoLease.class)
+                .then();
+    }
+}
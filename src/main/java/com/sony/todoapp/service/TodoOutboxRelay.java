@@ -0,0 +1,235 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.TodoOutboxEvent;
+import com.sony.todoapp.repository.TodoOutboxRepository;
+import com.sony.todoapp.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Background relay that drains the outbox into the configured TodoSearchEngine.
+// Events are applied oldest first and strictly in order per todo id; a failed event blocks
+// the later events of the same todo until it succeeds, so the index never goes backwards.
+// Todos that are backing off are left out of the batch query, so they never crowd out newer events; an event
+// that has failed max-attempts times is parked in todo_outbox_dead and the todo's later events go ahead.
+// Only one app instance relays at a time: each pass first takes or renews the "relay" lease (TodoLeases), and a pass
+// is cut short at half the lease, so two instances never drain (and reorder) the same todo's events together.
+// Anything left in the collection (crash, ES outage) is simply picked up on the next poll or restart.
+@Slf4j
+@Component
+public class TodoOutboxRelay {
+
+    static final String DEAD_LETTER_COLLECTION = "todo_outbox_dead";
+    private static final String LEASE_ID = "relay";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoOutboxRepository outboxRepository;
+    private final TodoRepository repository;
+    private final TodoSearchEngine searchEngine;
+    private final TodoSyncService syncService;
+    private final TodoLeases leases;
+
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayed;
+    private final Counter failed;
+    private final Counter deadLettered;
+
+    private Disposable subscription;
+
+    public TodoOutboxRelay(ReactiveMongoTemplate mongoTemplate,
+                           TodoOutboxRepository outboxRepository,
+                           TodoRepository repository,
+                           TodoSearchEngine searchEngine,
+                           TodoSyncService syncService,
+                           TodoLeases leases,
+                           MeterRegistry meterRegistry,
+                           @Value("${todo.outbox.poll-interval:500ms}") Duration pollInterval,
+                           @Value("${todo.outbox.batch-size:200}") int batchSize,
+                           @Value("${todo.outbox.concurrency:64}") int concurrency,
+                           @Value("${todo.outbox.retry-backoff:1s}") Duration retryBackoff,
+                           @Value("${todo.outbox.max-retry-backoff:5m}") Duration maxRetryBackoff,
+                           @Value("${todo.outbox.max-attempts:10}") int maxAttempts,
+                           @Value("${todo.outbox.lease:30s}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.outboxRepository = outboxRepository;
+        this.repository = repository;
+        this.searchEngine = searchEngine;
+        this.syncService = syncService;
+        this.leases = leases;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+
+        Gauge.builder("todo.outbox.depth", depth, AtomicLong::get)
+                .description("Outbox events waiting to be relayed to the search engine")
+                .register(meterRegistry);
+        Gauge.builder("todo.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("todo.outbox.relayed")
+                .description("Outbox events applied to the search engine")
+                .register(meterRegistry);
+        this.failed = Counter.builder("todo.outbox.failures")
+                .description("Failed attempts to apply an outbox event")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("todo.outbox.dead-lettered")
+                .description("Outbox events parked in todo_outbox_dead after max-attempts failures")
+                .register(meterRegistry);
+    }
+
+    // The search engine is prepared first (index layout, initial load); the outbox keeps every write meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = searchEngine.initialize()
+                .onErrorResume(e -> {
+                    log.error("Search engine initialization failed, relaying outbox events anyway", e);
+                    return Mono.empty();
+                })
+                .thenMany(Flux.interval(Duration.ZERO, pollInterval))
+                .onBackpressureDrop()
+                // Keep draining back-to-back while passes make progress (e.g. after a bulk import); a pass that
+                // applied nothing (all failing, or no lease) waits for the next tick
+                .concatMap(tick -> drain()
+                        .expand(applied -> applied > 0 ? drain() : Mono.empty())
+                        .then()
+                        .onErrorResume(e -> {
+                            log.warn("Outbox relay pass failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        // Hand the lease over right away instead of letting it expire
+        leases.release(LEASE_ID)
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+    }
+
+    // One relay pass: oldest batch of the todos that are not backing off, grouped per todo, groups in parallel,
+    // events within a group in order. Emits how many events were applied (0 when another instance holds the lease).
+    Mono<Integer> drain() {
+        return leases.acquire(LEASE_ID, lease)
+                .flatMap(held -> held ? drainBatch().timeout(lease.dividedBy(2)) : Mono.just(0));
+    }
+
+    private Mono<Integer> drainBatch() {
+        Query backingOff = Query.query(Criteria.where("nextAttemptAt").gt(Instant.now()));
+
+        return mongoTemplate.findDistinct(backingOff, "todoId", TodoOutboxEvent.class, String.class)
+                .collectList()
+                .flatMap(blocked -> mongoTemplate.find(Query.query(Criteria.where("todoId").nin(blocked))
+                                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")))
+                                .limit(batchSize), TodoOutboxEvent.class)
+                        .collectList())
+                .flatMap(batch -> {
+                    lagMillis.set(batch.isEmpty()
+                            ? 0
+                            : Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+                    LinkedHashMap<String, List<TodoOutboxEvent>> byTodo = batch.stream()
+                            .collect(Collectors.groupingBy(TodoOutboxEvent::getTodoId, LinkedHashMap::new, Collectors.toList()));
+
+                    return Flux.fromIterable(byTodo.values())
+                            .flatMap(this::applyInOrder, concurrency)
+                            .reduce(0L, Long::sum)
+                            .flatMap(applied -> outboxRepository.count()
+                                    .doOnNext(depth::set)
+                                    .thenReturn(applied.intValue()));
+                });
+    }
+
+    // Emits how many of the todo's events were applied before the first failure
+    private Mono<Long> applyInOrder(List<TodoOutboxEvent> events) {
+        return Flux.fromIterable(events)
+                .concatMap(event -> apply(event)
+                        .then(outboxRepository.delete(event))
+                        .doOnSuccess(done -> relayed.increment())
+                        .thenReturn(event))
+                .onErrorResume(RelayFailure.class, failure -> scheduleRetry(failure.event, failure.getCause())
+                        .thenMany(Flux.<TodoOutboxEvent>empty()))
+                .count();
+    }
+
+    private Mono<Void> apply(TodoOutboxEvent event) {
+        Mono<Void> write = switch (event.getType()) {
+            // Always index the latest Mongo state; if the todo is gone a DELETE event follows
+            case UPSERT -> repository.findById(event.getTodoId())
+                    .flatMap(searchEngine::upsert);
+            case DELETE -> searchEngine.delete(event.getTodoId(), event.getUserId());
+        };
+        // Stamped before the event is deleted, for TodoSyncService.settledVersion
+        return write.then(syncService.recordIndexed(event.getUserId()))
+                .onErrorMap(e -> new RelayFailure(event, e));
+    }
+
+    private Mono<Void> scheduleRetry(TodoOutboxEvent event, Throwable cause) {
+        failed.increment();
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(cause.getMessage());
+
+        if (attempts >= maxAttempts) {
+            log.error("Outbox event {} for todo {} failed {} times, moving it to {}",
+                    event.getId(), event.getTodoId(), attempts, DEAD_LETTER_COLLECTION, cause);
+            return mongoTemplate.save(event, DEAD_LETTER_COLLECTION)
+                    .then(outboxRepository.delete(event))
+                    .doOnSuccess(done -> deadLettered.increment());
+        }
+
+        long backoff = Math.min(retryBackoff.toMillis() << Math.min(attempts - 1, 20), maxRetryBackoff.toMillis());
+
+        log.warn("Outbox event {} for todo {} failed (attempt {}), retrying in {} ms",
+                event.getId(), event.getTodoId(), attempts, backoff, cause);
+
+        event.setNextAttemptAt(Instant.now().plusMillis(backoff));
+        return outboxRepository.save(event).then();
+    }
+
+    private static class RelayFailure extends RuntimeException {
+        private final TodoOutboxEvent event;
+
+        RelayFailure(TodoOutboxEvent event, Throwable cause) {
+            super(cause);
+            this.event = event;
+        }
+    }
+}
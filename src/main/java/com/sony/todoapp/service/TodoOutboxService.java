@@ -0,0 +1,41 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoOutboxEvent;
+import com.sony.todoapp.repository.TodoOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Records pending search-index changes; must be called inside the same transaction as the Todo write
+@Service
+@RequiredArgsConstructor
+public class TodoOutboxService {
+
+    private final TodoOutboxRepository outboxRepository;
+
+    public Mono<Void> recordUpsert(Todo todo) {
+        return outboxRepository.insert(new TodoOutboxEvent(todo.getId(), todo.getUserId(), TodoOutboxEvent.Type.UPSERT))
+                .then();
+    }
+
+    public Mono<Void> recordUpserts(Collection<Todo> todos) {
+        return outboxRepository.insert(Flux.fromIterable(todos)
+                        .map(todo -> new TodoOutboxEvent(todo.getId(), todo.getUserId(), TodoOutboxEvent.Type.UPSERT)))
+                .then();
+    }
+
+    public Mono<Void> recordDelete(String todoId, String userId) {
+        return outboxRepository.insert(new TodoOutboxEvent(todoId, userId, TodoOutboxEvent.Type.DELETE))
+                .then();
+    }
+
+    public Mono<Void> recordDeletes(Collection<String> todoIds, String userId) {
+        return outboxRepository.insert(Flux.fromIterable(todoIds)
+                        .map(todoId -> new TodoOutboxEvent(todoId, userId, TodoOutboxEvent.Type.DELETE)))
+                .then();
+    }
+}
@@ -0,0 +1,70 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Single-flight for reads: concurrent identical reads of one user share one in-flight search request and
+// all of them get its result. Flights are keyed on the user's write version (todo_sync_state), read before
+// joining: a flight for version V was started after V was committed, so a caller never gets a result older
+// than a write it has seen acknowledged, on whichever instance that write went through. A flight is
+// forgotten as soon as it finishes; nothing is cached beyond that.
+@Component
+public class TodoReadCoalescer {
+
+    private final ConcurrentHashMap<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter reads;
+    private final Counter joined;
+
+    public TodoReadCoalescer(MeterRegistry meterRegistry) {
+        this.reads = Counter.builder("todo.read.coalesce.requests")
+                .description("Reads that went through the single-flight layer")
+                .register(meterRegistry);
+        this.joined = Counter.builder("todo.read.coalesce.joined")
+                .description("Reads served by joining a request already in flight")
+                .register(meterRegistry);
+
+        Gauge.builder("todo.read.coalesce.ratio", this,
+                        coalescer -> coalescer.reads.count() == 0 ? 0 : coalescer.joined.count() / coalescer.reads.count())
+                .description("Share of reads that joined a request already in flight")
+                .register(meterRegistry);
+    }
+
+    // query identifies the read (operation and parameters) within the user
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String userId, long version, String query, Supplier<Mono<T>> read) {
+        return Mono.defer(() -> {
+            Key key = new Key(userId, version, query);
+            Mono<?>[] created = new Mono<?>[1];
+            Mono<?> flight = inFlight.computeIfAbsent(key, k -> created[0] = start(k, read));
+
+            reads.increment();
+            if (flight != created[0]) {
+                joined.increment();
+            }
+            return (Mono<T>) flight;
+        });
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    // share() runs the read once for every waiter; a waiter that cancels does not cancel it for the others
+    private <T> Mono<T> start(Key key, Supplier<Mono<T>> read) {
+        Mono<?>[] self = new Mono<?>[1];
+        Mono<T> flight = Mono.defer(read)
+                .doFinally(signal -> inFlight.remove(key, self[0]))
+                .share();
+        self[0] = flight;
+        return flight;
+    }
+
+    private record Key(String userId, long version, String query) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read path router: Elasticsearch first, Mongo when Elasticsearch is slow, failing or known to be down.
+// Each side gets its own timeout. failure-threshold consecutive Elasticsearch failures open the breaker,
+// after which reads go straight to Mongo; once open-duration has passed a single probe request is sent
+// to Elasticsearch again and its outcome closes or re-opens the breaker.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
+public class TodoReadRouter {
+
+    static final int CLOSED = 0;
+    static final int HALF_OPEN = 1;
+    static final int OPEN = 2;
+
+    private final Duration esTimeout;
+    private final Duration mongoTimeout;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // When the breaker last opened or last let a probe through
+    private final AtomicLong openedAt = new AtomicLong();
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TodoReadRouter(MeterRegistry meterRegistry,
+                          @Value("${todo.read.es-timeout:2s}") Duration esTimeout,
+                          @Value("${todo.read.mongo-timeout:5s}") Duration mongoTimeout,
+                          @Value("${todo.read.breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${todo.read.breaker.open-duration:30s}") Duration openDuration) {
+        this.meterRegistry = meterRegistry;
+        this.esTimeout = esTimeout;
+        this.mongoTimeout = mongoTimeout;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+
+        Gauge.builder("todo.read.breaker.state", state, AtomicInteger::get)
+                .description("Elasticsearch read breaker: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    // For reads collected into one value (pages): the whole result comes from one side
+    public <T> Mono<T> mono(String operation, Mono<T> elasticsearch, Mono<T> mongo) {
+        return Mono.defer(() -> {
+            if (!allowElasticsearch()) {
+                countFailover(operation, "open");
+                return timed(mongo.timeout(mongoTimeout), operation, "mongo");
+            }
+            return timed(elasticsearch.timeout(esTimeout), operation, "elasticsearch")
+                    .doOnSuccess(result -> onSuccess())
+                    .onErrorResume(e -> {
+                        onFailure(operation, e);
+                        countFailover(operation, reason(e));
+                        return timed(mongo.timeout(mongoTimeout), operation, "mongo");
+                    });
+        });
+    }
+
+    // For streamed reads: falls back only if Elasticsearch fails before the first item, so nothing is sent twice.
+    // Only the first item is timed: after that the pace is set by the client (backpressure), and an error then
+    // says nothing about the backend, so it is passed on without counting towards the breaker.
+    public <T> Flux<T> flux(String operation, Flux<T> elasticsearch, Flux<T> mongo) {
+        return Flux.defer(() -> {
+            if (!allowElasticsearch()) {
+                countFailover(operation, "open");
+                return timed(firstItemTimeout(mongo, mongoTimeout), operation, "mongo");
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            return timed(firstItemTimeout(elasticsearch, esTimeout), operation, "elasticsearch")
+                    .doOnNext(item -> {
+                        if (started.compareAndSet(false, true)) {
+                            onSuccess();
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!started.get()) {
+                            onSuccess();
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        if (started.get()) {
+                            return Flux.error(e);
+                        }
+                        onFailure(operation, e);
+                        countFailover(operation, reason(e));
+                        return timed(firstItemTimeout(mongo, mongoTimeout), operation, "mongo");
+                    });
+        });
+    }
+
+    private static <T> Flux<T> firstItemTimeout(Flux<T> call, Duration timeout) {
+        return call.timeout(Mono.delay(timeout), item -> Mono.never());
+    }
+
+    int state() {
+        return state.get();
+    }
+
+    private boolean allowElasticsearch() {
+        if (state.get() == CLOSED) {
+            return true;
+        }
+        // Open (or a probe that never reported back): let exactly one request through once the wait is over
+        long since = openedAt.get();
+        long now = System.currentTimeMillis();
+        if (now - since >= openMillis && openedAt.compareAndSet(since, now)) {
+            state.set(HALF_OPEN);
+            return true;
+        }
+        return false;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(CLOSED) != CLOSED) {
+            log.info("Elasticsearch reads recovered, closing read breaker");
+        }
+    }
+
+    private void onFailure(String operation, Throwable e) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == HALF_OPEN || failures >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+            if (state.getAndSet(OPEN) != OPEN) {
+                log.warn("Opening Elasticsearch read breaker after {} failure(s), last in {}: {}",
+                        failures, operation, e.toString());
+            }
+        }
+    }
+
+    private void countFailover(String operation, String reason) {
+        Counter.builder("todo.read.failover")
+                .description("Reads served from Mongo instead of Elasticsearch")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // todo.read{operation, source, outcome}: time spent in each backend per call
+    private <T> Mono<T> timed(Mono<T> call, String operation, String source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> record(operation, source, signal, start));
+        });
+    }
+
+    private <T> Flux<T> timed(Flux<T> call, String operation, String source) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return call.doFinally(signal -> record(operation, source, signal, start));
+        });
+    }
+
+    private void record(String operation, String source, SignalType signal, long start) {
+        String outcome = signal == SignalType.ON_ERROR ? "error" : signal == SignalType.CANCEL ? "cancelled" : "success";
+        timers.computeIfAbsent(operation + ':' + source + ':' + outcome, key -> Timer.builder("todo.read")
+                        .description("Read latency per backend")
+                        .tag("operation", operation)
+                        .tag("source", source)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String reason(Throwable e) {
+        return e instanceof TimeoutException ? "timeout" : "error";
+    }
+}
@@ -0,0 +1,74 @@
+package com.sony.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sony.todoapp.dto.TodoResponseDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Cache of search result pages for /todo/search, which the search box hits on nearly every keystroke.
+// Keys include the user's write version (todo_sync_state), so any write moves the user on to fresh keys and
+// old entries simply age out; nothing is ever scanned or invalidated. Bounded by an estimate of the bytes
+// held (W-TinyLFU eviction); concurrent misses for the same key share one search request.
+@Component
+public class TodoSearchCache {
+
+    // Rough per-task overhead of the DTO, its strings and the list slot, on top of the text itself
+    private static final int TASK_OVERHEAD_BYTES = 200;
+    private static final int ENTRY_OVERHEAD_BYTES = 100;
+
+    private final AsyncCache<Key, List<TodoResponseDto>> cache;
+
+    public TodoSearchCache(MeterRegistry meterRegistry,
+                           @Value("${todo.search.cache.max-bytes:67108864}") long maxBytes,
+                           @Value("${todo.search.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, List<TodoResponseDto> page) -> weigh(key, page))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=search
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search");
+        Gauge.builder("todo.search.cache.hit-ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of /todo/search pages served from the cache")
+                .register(meterRegistry);
+    }
+
+    // version must be one the search engine already reflects, or a lagging result would be cached as current
+    public Mono<List<TodoResponseDto>> get(String userId, long version, String keyword, String cursor, int limit,
+                                           Supplier<Mono<List<TodoResponseDto>>> search) {
+        Key key = new Key(userId, version, keyword, cursor, limit);
+        return Mono.fromFuture(
+                cache.get(key, (k, executor) -> search.get().toFuture()),
+                true); // one waiter cancelling must not cancel the shared search
+    }
+
+    long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    static int weigh(Key key, List<TodoResponseDto> page) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * (key.keyword().length() + (key.cursor() == null ? 0 : key.cursor().length()));
+        for (TodoResponseDto task : page) {
+            bytes += TASK_OVERHEAD_BYTES + 2L * (length(task.getName()) + length(task.getDescription()));
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    record Key(String userId, long version, String keyword, String cursor, int limit) {
+    }
+}
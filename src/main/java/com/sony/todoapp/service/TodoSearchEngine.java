@@ -0,0 +1,35 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.util.PageCursor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Read side of TodoService, selected with todo.search.engine:
+//   elasticsearch (default) - ElasticsearchTodoSearchEngine, the todos index with Mongo fallback
+//   embedded                - EmbeddedTodoSearchEngine, an in-process inverted index over Mongo (single instance)
+// Both are kept up to date by TodoOutboxRelay through upsert/delete, which must be idempotent.
+public interface TodoSearchEngine {
+
+    // Prepares the engine (index layout, initial load); the outbox relay starts once this completes
+    Mono<Void> initialize();
+
+    // Every task of the user, newest first; completed == null means all tasks
+    Flux<TodoResponseDto> findAll(String userId, Boolean completed);
+
+    // Every task whose name matches, newest first
+    Flux<TodoResponseDto> search(String userId, String name);
+
+    // Up to limit tasks after the cursor, newest first; completed and name are optional filters
+    Mono<List<TodoResponseDto>> findPage(String userId, Boolean completed, String name, PageCursor after, int limit);
+
+    // Up to limit distinct task names matching the prefix
+    Flux<String> suggest(String userId, String prefix, int limit);
+
+    Mono<Void> upsert(Todo todo);
+
+    Mono<Void> delete(String todoId, String userId);
+}
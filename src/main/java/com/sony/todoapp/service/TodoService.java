@@ -1,131 +1,608 @@
 package com.sony.todoapp.service;
 
+import com.mongodb.MongoException;
+import com.sony.todoapp.dto.BulkImportResultDto;
+import com.sony.todoapp.dto.BulkTodoRequestDto;
+import com.sony.todoapp.dto.BulkTodoResultDto;
+import com.sony.todoapp.dto.TodoChangeEventDto;
+import com.sony.todoapp.dto.TodoChangesDto;
+import com.sony.todoapp.dto.TodoPageDto;
 import com.sony.todoapp.dto.TodoRequestDto;
 import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.dto.TodoStatsDto;
 import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.exception.BulkOperationFailedException;
+import com.sony.todoapp.exception.PayloadTooLargeException;
 import com.sony.todoapp.exception.ResourceNotFoundException;
 import com.sony.todoapp.exception.TaskAlreadyCompletedException;
 import com.sony.todoapp.mapper.TodoMapper;
-import com.sony.todoapp.mapper.TodoSearchMapper;
-import com.sony.todoapp.repository.TodoEsRepository;
 import com.sony.todoapp.repository.TodoRepository;
 import com.sony.todoapp.repository.UserRepository;
+import com.sony.todoapp.util.PageCursor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TodoService {
 
     private final TodoRepository repository;
+    private final ReactiveMongoOperations mongoOperations;
     private final UserRepository userRepository;
     private final TodoMapper mapper;
-    private final TodoSearchMapper searchMapper;
-    private final TodoEsRepository esRepository;
+    private final TodoOutboxService outboxService;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+    private final TodoChangeFeed changeFeed;
+    private final TodoSyncService syncService;
+    private final TodoStatsService statsService;
+    private final TodoSearchEngine searchEngine;
+    private final TodoReadCoalescer readCoalescer;
+    private final TodoSearchCache searchCache;
+    private final TodoServiceMetrics metrics;
+
+    @Value("${todo.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    @Value("${todo.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${todo.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${todo.suggest.max-results:10}")
+    private int suggestMaxResults;
+
+    @Value("${todo.suggest.timeout:150ms}")
+    private Duration suggestTimeout;
+
+    @Value("${todo.etag.settle:2s}")
+    private Duration etagSettle;
+
+    @Value("${todo.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${todo.bulk.max-ids:5000}")
+    private int bulkMaxIds;
+
+    @Value("${todo.bulk.max-tasks:1000}")
+    private int bulkMaxTasks;
+
+    // Listing order (createdAt desc, id desc), the order PageCursor pages through
+    private static final Comparator<TodoResponseDto> NEWEST_FIRST = Comparator.comparing(TodoResponseDto::getCreatedAt)
+            .thenComparing(TodoResponseDto::getId)
+            .reversed();
+
+    // Writes for the same user conflict on the sync version counter; Mongo aborts the loser with a
+    // TransientTransactionError label and the whole transaction is simply run again
+    private static final Retry TRANSIENT_TRANSACTION_RETRY = Retry.backoff(5, Duration.ofMillis(10))
+            .filter(TodoService::isTransientTransactionError)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+    private static final Retry IMPORT_TRANSACTION_RETRY = Retry.backoff(10, Duration.ofMillis(50))
+            .maxBackoff(Duration.ofSeconds(2))
+            .filter(TodoService::isTransientTransactionError)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
 
     //    Add Single task
     public Mono<TodoResponseDto> addTask(TodoRequestDto dto, String userId) {
         Todo entity = mapper.toEntity(dto);
         entity.setUserId(userId);
 
-        return repository.save(entity)
-                .flatMap(saved ->
-                        esRepository.save(searchMapper.toEs(saved))
-                                .thenReturn(saved))
-                .map(mapper::toDto);
+        return inTransaction(syncService.nextVersion(userId)
+                        .flatMap(version -> {
+                            entity.setChangeVersion(version);
+                            return repository.save(entity);
+                        })
+                        .flatMap(saved -> outboxService.recordUpsert(saved)
+                                .then(statsService.recordCreated(userId, 1))
+                                .thenReturn(saved)))
+                .map(mapper::toDto)
+                .transform(metrics.mono("addTask"));
     }
 
 
-    //    Add multiple tasks
+    //    Add multiple tasks. The whole array is held in memory and written in one transaction, so it is capped at
+    //    todo.bulk.max-tasks; reading stops at the first task over the cap. Larger imports go through importTasks.
     public Flux<TodoResponseDto> addMultipleTasks(Flux<TodoRequestDto> dtoFlux, String userId) {
         return dtoFlux
+                .take(bulkMaxTasks + 1L)
                 .map(mapper::toEntity)
                 .map(entity -> {
                     entity.setUserId(userId);
                     return entity;
                 })
                 .collectList()
-                .flatMapMany(repository::saveAll)
-                .flatMap(saved ->
-                        esRepository.save(searchMapper.toEs(saved))  // save each TodoEs
-                                .then(Mono.just(saved))              // return the original Todo
-                )
-                .map(mapper::toDto);
+                .filter(entities -> entities.size() <= bulkMaxTasks)
+                .switchIfEmpty(Mono.error(() -> new PayloadTooLargeException("At most " + bulkMaxTasks
+                        + " tasks per JSON array; send larger imports as application/x-ndjson")))
+                .flatMap(entities -> inTransaction(assignVersions(entities, userId)
+                        .flatMap(versioned -> repository.saveAll(versioned).collectList())
+                        .flatMap(saved -> outboxService.recordUpserts(saved)
+                                .then(statsService.recordCreated(userId, saved.size()))
+                                .thenReturn(saved))))
+                .flatMapIterable(saved -> saved)
+                .map(mapper::toDto)
+                .transform(metrics.flux("addMultipleTasks"));
+    }
+
+
+    //    Streaming import: lines are validated and inserted in fixed-size chunks as they arrive, so memory stays
+    //    flat for any payload size. Chunks are written one at a time: every chunk bumps the user's sync version
+    //    counter, so parallel chunks of the same import would only abort each other with write conflicts.
+    public Flux<BulkImportResultDto> importTasks(Flux<TodoRequestDto> dtoFlux, String userId) {
+        return dtoFlux
+                .index()
+                .buffer(importChunkSize)
+                .concatMap(chunk -> importChunk(chunk, userId), 1)
+                .transform(metrics.flux("importTasks"));
+    }
+
+    private Flux<BulkImportResultDto> importChunk(List<Tuple2<Long, TodoRequestDto>> chunk, String userId) {
+        BulkImportResultDto[] results = new BulkImportResultDto[chunk.size()];
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        List<Todo> entities = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            long index = chunk.get(i).getT1();
+            TodoRequestDto dto = chunk.get(i).getT2();
+
+            Set<ConstraintViolation<TodoRequestDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                results[i] = BulkImportResultDto.rejected(index, violations.iterator().next().getMessage());
+                continue;
+            }
+
+            Todo entity = mapper.toEntity(dto);
+            entity.setUserId(userId);
+            positions.add(i);
+            entities.add(entity);
+        }
+
+        if (entities.isEmpty()) {
+            return Flux.fromArray(results);
+        }
+
+        // One insertMany plus its outbox events per chunk; other writes of the same user (another import, another
+        // tab) can still conflict with it, and a chunk transaction is long, so it gets a longer retry budget
+        return inTransaction(assignVersions(entities, userId)
+                        .flatMap(versioned -> repository.insert(versioned).collectList())
+                        .flatMap(saved -> outboxService.recordUpserts(saved)
+                                .then(statsService.recordCreated(userId, saved.size()))
+                                .thenReturn(saved)), IMPORT_TRANSACTION_RETRY)
+                .map(saved -> {
+                    for (int j = 0; j < saved.size(); j++) {
+                        int i = positions.get(j);
+                        results[i] = BulkImportResultDto.created(chunk.get(i).getT1(), saved.get(j).getId());
+                    }
+                    return results;
+                })
+                .onErrorResume(e -> {
+                    for (int i : positions) {
+                        results[i] = BulkImportResultDto.failed(chunk.get(i).getT1(), e.getMessage());
+                    }
+                    return Mono.just(results);
+                })
+                .flatMapIterable(Arrays::asList);
+    }
+
+    // Gives each new todo its own sync version from one counter bump
+    private Mono<List<Todo>> assignVersions(List<Todo> entities, String userId) {
+        if (entities.isEmpty()) {
+            return Mono.just(entities);
+        }
+        return syncService.reserveVersions(userId, entities.size())
+                .map(last -> {
+                    long version = last - entities.size();
+                    for (Todo entity : entities) {
+                        entity.setChangeVersion(++version);
+                    }
+                    return entities;
+                });
     }
 
 
 
-    //    Get All tasks
+    //    Get All tasks (reads go through the configured TodoSearchEngine)
     public Flux<TodoResponseDto> getAllTasks(String userId) {
-        return esRepository.searchByUserId(userId) // returns Flux<TodoEs>
+        return searchEngine.findAll(userId, null)
                 .switchIfEmpty(Flux.error(new ResourceNotFoundException("No tasks found for user " + userId)))
-                .map(searchMapper::toDto);         // map each TodoEs -> DTO
+                .transform(metrics.flux("getAllTasks"));
     }
 
     //    Search tasks by name
     public Flux<TodoResponseDto> searchTasks(String name, String userId) {
-        return esRepository.searchByNameContainingIgnoreCaseAndUserId(name, userId)
+        return searchEngine.search(userId, name)
                 .switchIfEmpty(Flux.error(new ResourceNotFoundException("No tasks found")))
-                .map(searchMapper::toDto);
+                .transform(metrics.flux("searchTasks"));
     }
 
 
-    //    Update tasks
-    public Mono<TodoResponseDto> updateTask(String id, TodoRequestDto dto, String userId) {
-        return repository.findByIdAndUserId(id, userId)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Task not found")))
-                .flatMap(existing -> {
-                    if (existing.isCompleted()) {
-                        return Mono.error(new TaskAlreadyCompletedException("Cannot update a completed task"));
+    //    Typeahead over task names: an empty list rather than a late answer once the latency budget is spent
+    public Mono<List<String>> suggest(String prefix, String userId) {
+        if (prefix == null || prefix.isBlank()) {
+            return Mono.just(List.of());
+        }
+        return searchEngine.suggest(userId, prefix.trim(), suggestMaxResults)
+                .collectList()
+                .timeout(suggestTimeout)
+                .onErrorReturn(List.of())
+                .transform(metrics.mono("suggest"));
+    }
+
+
+    //    One page of a user's tasks, newest first; completed == null means all tasks. listVersion is the
+    //    request's listVersion(userId), already read for its ETag, so the page costs no further version read.
+    public Mono<TodoPageDto> getTasksPage(String userId, Boolean completed, String cursor, Integer size,
+                                          Mono<Long> listVersion) {
+        int limit = pageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+
+        // Identical concurrent page reads (several tabs, client retries) share one search request, keyed on the
+        // settled version; until the latest write has settled the page is read on its own
+        String query = "page:" + completed + ":" + cursor + ":" + limit;
+        Supplier<Mono<List<TodoResponseDto>>> page = () -> searchEngine.findPage(userId, completed, null, after, limit + 1);
+        return listVersion
+                .flatMap(version -> readCoalescer.coalesce(userId, version, query, page))
+                .switchIfEmpty(Mono.defer(page))
+                .flatMap(items -> {
+                    if (items.isEmpty() && after == null && completed == null) {
+                        return Mono.error(new ResourceNotFoundException("No tasks found for user " + userId));
                     }
-                    existing.setName(dto.getName());
-                    existing.setDescription(dto.getDescription());
-                    return repository.save(existing);
+                    return Mono.just(toPage(items, limit));
                 })
-                .flatMap(saved ->
-                        esRepository.save(searchMapper.toEs(saved))
-                                .thenReturn(saved))
-                .map(mapper::toDto);
+                .transform(metrics.mono("getTasksPage"));
     }
 
+    //    One page of search results, newest first; listVersion as for getTasksPage
+    public Mono<TodoPageDto> searchTasksPage(String name, String userId, String cursor, Integer size,
+                                             Mono<Long> listVersion) {
+        int limit = pageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
 
-    //    Mark task as completed
-    public Mono<TodoResponseDto> markCompleted(String id, String userId) {
-        return repository.findByIdAndUserId(id, userId)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Task not found")))
-                .flatMap(todo -> {
-                    todo.setCompleted(true);
-                    return repository.save(todo);
+        // Cached per write version, but only once the search engine has caught up with it
+        Supplier<Mono<List<TodoResponseDto>>> search = () -> searchEngine.findPage(userId, null, name, after, limit + 1);
+        return listVersion
+                .flatMap(version -> searchCache.get(userId, version, name, cursor, limit, search))
+                .switchIfEmpty(Mono.defer(search))
+                .flatMap(items -> items.isEmpty() && after == null
+                        ? Mono.<TodoPageDto>error(new ResourceNotFoundException("No tasks found"))
+                        : Mono.just(toPage(items, limit)))
+                .transform(metrics.mono("searchTasksPage"));
+    }
+
+    //    One page of completed tasks across both tiers: the search engine (hot) and todos_archive (cold).
+    //    Both are read with the same keyset cursor and merged; an id in both (the archive delete not yet applied
+    //    to the search index) is listed once.
+    public Mono<TodoPageDto> getCompletedPageWithArchive(String userId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+
+        return Mono.zip(searchEngine.findPage(userId, true, null, after, limit + 1),
+                        repository.findArchivedPage(userId, after, limit + 1).map(mapper::toDto).collectList())
+                .map(tiers -> {
+                    Map<String, TodoResponseDto> merged = new LinkedHashMap<>();
+                    tiers.getT1().forEach(todo -> merged.put(todo.getId(), todo));
+                    tiers.getT2().forEach(todo -> merged.putIfAbsent(todo.getId(), todo));
+                    List<TodoResponseDto> items = merged.values().stream()
+                            .sorted(NEWEST_FIRST)
+                            .limit(limit + 1)
+                            .toList();
+                    return toPage(items, limit);
                 })
-                .flatMap(saved ->
-                        esRepository.save(searchMapper.toEs(saved))
+                .transform(metrics.mono("getCompletedPageWithArchive"));
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    // items holds up to limit + 1 rows; the extra one only tells us there is a next page
+    private TodoPageDto toPage(List<TodoResponseDto> items, int limit) {
+        if (items.size() <= limit) {
+            return new TodoPageDto(items, null);
+        }
+        List<TodoResponseDto> page = items.subList(0, limit);
+        TodoResponseDto last = page.get(limit - 1);
+        return new TodoPageDto(page, PageCursor.of(last.getCreatedAt(), last.getId()).encode());
+    }
+
+
+    //    Update tasks: one conditional find-and-modify (owner + not completed) instead of find then save
+    public Mono<TodoResponseDto> updateTask(String id, TodoRequestDto dto, String userId) {
+        Query pendingTodo = Query.query(Criteria.where("_id").is(id)
+                .and("userId").is(userId)
+                .and("completed").is(false));
+
+        return inTransaction(syncService.nextVersion(userId)
+                        .flatMap(version -> mongoOperations.findAndModify(pendingTodo,
+                                new Update()
+                                        .set("name", dto.getName())
+                                        .set("description", dto.getDescription())
+                                        .set("changeVersion", version),
+                                FindAndModifyOptions.options().returnNew(true), Todo.class))
+                        .switchIfEmpty(Mono.defer(() -> explainMissing(id, userId)))
+                        .flatMap(saved -> outboxService.recordUpsert(saved).thenReturn(saved)))
+                .map(mapper::toDto)
+                .transform(metrics.mono("updateTask"));
+    }
+
+    // Only reached when the conditional update matched nothing: tell "not yours / missing" from "completed"
+    private Mono<Todo> explainMissing(String id, String userId) {
+        return repository.findByIdAndUserId(id, userId)
+                .flatMap(existing -> Mono.<Todo>error(new TaskAlreadyCompletedException("Cannot update a completed task")))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Task not found")));
+    }
+
+
+    //    Mark task as completed (conditional find-and-modify; completing an already completed task is a no-op).
+    //    The version is only taken once the update has matched, so a repeated complete leaves the user's version,
+    //    and with it their ETags, cached pages and sync cursor, as it was.
+    public Mono<TodoResponseDto> markCompleted(String id, String userId) {
+        Query pendingTodo = Query.query(Criteria.where("_id").is(id)
+                .and("userId").is(userId)
+                .and("completed").is(false));
+        Query ownTodo = Query.query(Criteria.where("_id").is(id).and("userId").is(userId));
+
+        return inTransaction(mongoOperations.findAndModify(pendingTodo,
+                                Update.update("completed", true).set("completedAt", LocalDateTime.now()),
+                                Todo.class)
+                        .flatMap(completed -> syncService.nextVersion(userId))
+                        .flatMap(version -> mongoOperations.findAndModify(ownTodo,
+                                Update.update("changeVersion", version),
+                                FindAndModifyOptions.options().returnNew(true), Todo.class))
+                        .flatMap(saved -> outboxService.recordUpsert(saved)
+                                .then(statsService.recordCompleted(userId))
                                 .thenReturn(saved))
-                .map(mapper::toDto);
+                        .switchIfEmpty(Mono.defer(() -> repository.findByIdAndUserId(id, userId)))
+                        .switchIfEmpty(Mono.error(new ResourceNotFoundException("Task not found"))))
+                .map(mapper::toDto)
+                .transform(metrics.mono("markCompleted"));
     }
 
 
-    //    Delete a task
+    //    Delete a task (single find-and-remove scoped to the owner, leaves a tombstone for delta sync)
     public Mono<Void> deleteTask(String id, String userId) {
-        return repository.findByIdAndUserId(id, userId)
+        Query ownTodo = Query.query(Criteria.where("_id").is(id).and("userId").is(userId));
+
+        return inTransaction(mongoOperations.findAndRemove(ownTodo, Todo.class)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Task not found or not yours")))
-                .flatMap(todo -> repository.delete(todo)
-                        .then(esRepository.deleteById(todo.getId()))
-                );
+                .flatMap(deleted -> outboxService.recordDelete(id, userId)
+                        .then(syncService.recordDelete(id, userId))
+                        .then(statsService.recordDeleted(userId, deleted.isCompleted()))))
+                .transform(metrics.mono("deleteTask"));
+    }
+
+
+    //    Bulk complete: by ids, or every pending task created before createdBefore. Each chunk of up to
+    //    bulk.chunk-size tasks is one transaction: one find, one bulkWrite (each task keeps its own sync version),
+    //    one outbox insertMany (sent to Elasticsearch through the index writer's _bulk) and one stats update.
+    public Flux<BulkTodoResultDto> completeTasks(BulkTodoRequestDto request, String userId) {
+        LocalDateTime createdBefore = request.getCreatedBefore();
+        return bulk(request.getIds(), createdBefore, "createdBefore", userId,
+                        () -> Criteria.where("completed").is(false).and("createdAt").lt(createdBefore),
+                        this::completeChunk)
+                .transform(metrics.flux("completeTasks"));
+    }
+
+    //    Bulk delete: by ids, or every task completed before completedBefore (tasks completed before completedAt
+    //    was recorded count by their creation time). Per chunk: one find, one deleteMany, one outbox insertMany,
+    //    one batch of tombstones and one stats update, all in one transaction.
+    public Flux<BulkTodoResultDto> deleteTasks(BulkTodoRequestDto request, String userId) {
+        LocalDateTime before = request.getCompletedBefore();
+        return bulk(request.getIds(), before, "completedBefore", userId,
+                        () -> completedBefore(before),
+                        this::deleteChunk)
+                .transform(metrics.flux("deleteTasks"));
+    }
+
+    // Completed tasks whose completion time is before the given one; shared with TodoArchiveJob
+    static Criteria completedBefore(LocalDateTime before) {
+        return Criteria.where("completed").is(true).orOperator(
+                Criteria.where("completedAt").lt(before),
+                Criteria.where("completedAt").is(null).and("createdAt").lt(before));
+    }
+
+    // Exactly one of ids and before selects the tasks. Ids are processed chunk by chunk with one outcome per
+    // requested id; a filter is re-run until it matches nothing, and stops at the first failed chunk (otherwise
+    // it would pick the same tasks again) with a BulkOperationFailedException. Every query is scoped to userId,
+    // so other users' tasks are never touched.
+    private Flux<BulkTodoResultDto> bulk(List<String> ids, LocalDateTime before, String filterName, String userId,
+                                         Supplier<Criteria> byFilter, ChunkWrite write) {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        if (hasIds == (before != null)) {
+            return Flux.error(new IllegalArgumentException("Give either ids or " + filterName));
+        }
+
+        if (hasIds) {
+            List<String> distinct = List.copyOf(new LinkedHashSet<>(ids));
+            if (distinct.size() > bulkMaxIds) {
+                return Flux.error(new IllegalArgumentException("At most " + bulkMaxIds + " ids per request"));
+            }
+            return Flux.fromIterable(distinct)
+                    .buffer(bulkChunkSize)
+                    .concatMap(chunk -> write.apply(ownTodos(Criteria.where("_id").in(chunk), userId, chunk.size()), userId)
+                            .map(found -> outcomes(chunk, found))
+                            .onErrorResume(e -> Mono.just(failed(chunk, e))))
+                    .flatMapIterable(Function.identity());
+        }
+
+        // A failed chunk has no ids to report against, so the request fails as a whole: outcomes are held back
+        // until the last chunk, leaving the response uncommitted for the error status
+        return Flux.defer(() -> {
+            AtomicInteger applied = new AtomicInteger();
+            return Mono.defer(() -> write.apply(ownTodos(byFilter.get(), userId, bulkChunkSize), userId))
+                    .repeat()
+                    .takeUntil(found -> found.size() < bulkChunkSize)
+                    .doOnNext(found -> applied.addAndGet(found.size()))
+                    .collectList()
+                    .onErrorMap(e -> new BulkOperationFailedException(applied.get(), e))
+                    .flatMapIterable(chunks -> chunks.stream().flatMap(List::stream).toList());
+        });
+    }
+
+    // The matching tasks of this user, id and status only
+    private Query ownTodos(Criteria criteria, String userId, int limit) {
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("userId").is(userId), criteria))
+                .limit(limit);
+        query.fields().include("_id", "userId", "completed");
+        return query;
+    }
+
+    private Mono<List<BulkTodoResultDto>> completeChunk(Query selection, String userId) {
+        return inTransaction(mongoOperations.find(selection, Todo.class).collectList()
+                .flatMap(found -> {
+                    List<Todo> pending = found.stream().filter(todo -> !todo.isCompleted()).toList();
+                    Mono<Void> write = pending.isEmpty() ? Mono.empty() : syncService.reserveVersions(userId, pending.size())
+                            .flatMap(last -> {
+                                LocalDateTime now = LocalDateTime.now();
+                                long version = last - pending.size();
+                                ReactiveBulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class);
+                                for (Todo todo : pending) {
+                                    bulk.updateOne(Query.query(Criteria.where("_id").is(todo.getId()).and("userId").is(userId)),
+                                            Update.update("completed", true)
+                                                    .set("completedAt", now)
+                                                    .set("changeVersion", ++version));
+                                }
+                                return bulk.execute();
+                            })
+                            .then(outboxService.recordUpserts(pending))
+                            .then(statsService.recordCompleted(userId, pending.size()));
+                    return write.thenReturn(found.stream()
+                            .map(todo -> BulkTodoResultDto.of(todo.getId(), todo.isCompleted()
+                                    ? BulkTodoResultDto.Status.ALREADY_COMPLETED
+                                    : BulkTodoResultDto.Status.COMPLETED))
+                            .toList());
+                }));
+    }
+
+    private Mono<List<BulkTodoResultDto>> deleteChunk(Query selection, String userId) {
+        return inTransaction(mongoOperations.find(selection, Todo.class).collectList()
+                .flatMap(found -> {
+                    if (found.isEmpty()) {
+                        return Mono.just(List.<BulkTodoResultDto>of());
+                    }
+                    List<String> ids = found.stream().map(Todo::getId).toList();
+                    int completed = (int) found.stream().filter(Todo::isCompleted).count();
+                    return mongoOperations.remove(Query.query(Criteria.where("_id").in(ids).and("userId").is(userId)), Todo.class)
+                            .then(outboxService.recordDeletes(ids, userId))
+                            .then(syncService.recordDeletes(ids, userId))
+                            .then(statsService.recordDeleted(userId, found.size() - completed, completed))
+                            .thenReturn(ids.stream()
+                                    .map(id -> BulkTodoResultDto.of(id, BulkTodoResultDto.Status.DELETED))
+                                    .toList());
+                }));
+    }
+
+    // One outcome per requested id, in request order
+    private static List<BulkTodoResultDto> outcomes(List<String> requested, List<BulkTodoResultDto> found) {
+        Map<String, BulkTodoResultDto> byId = found.stream()
+                .collect(Collectors.toMap(BulkTodoResultDto::getId, Function.identity()));
+        return requested.stream()
+                .map(id -> byId.getOrDefault(id, BulkTodoResultDto.of(id, BulkTodoResultDto.Status.NOT_FOUND)))
+                .toList();
+    }
+
+    private static List<BulkTodoResultDto> failed(List<String> requested, Throwable error) {
+        return requested.stream()
+                .map(id -> BulkTodoResultDto.failed(id, error.getMessage()))
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface ChunkWrite {
+        Mono<List<BulkTodoResultDto>> apply(Query selection, String userId);
     }
 
 
     //  Get completed tasks
     public Flux<TodoResponseDto> getCompletedTasksEs(String userId) {
-        return esRepository.findByCompletedAndUserId(true, userId)
-                .map(searchMapper::toDto);
+        return searchEngine.findAll(userId, true)
+                .transform(metrics.flux("getCompletedTasksEs"));
     }
 
     //  Get pending tasks
     public Flux<TodoResponseDto> getPendingTasksEs(String userId) {
-        return esRepository.findByCompletedAndUserId(false, userId)
-                .map(searchMapper::toDto);
+        return searchEngine.findAll(userId, false)
+                .transform(metrics.flux("getPendingTasksEs"));
+    }
+
+    //  Live changes for one user (Server-Sent Events)
+    public Flux<ServerSentEvent<TodoChangeEventDto>> streamChanges(String userId, String lastEventId) {
+        return changeFeed.subscribe(userId, lastEventId);
+    }
+
+    //  Pending / completed counts (one read of the user's counters)
+    public Mono<TodoStatsDto> getStats(String userId) {
+        return statsService.getStats(userId)
+                .transform(metrics.mono("getStats"));
+    }
+
+    //  Version behind the ETag of list responses; empty while the search engine may still be catching up
+    public Mono<Long> listVersion(String userId) {
+        return syncService.settledVersion(userId, etagSettle);
+    }
+
+    //  Version behind the ETag of stats responses (counters are updated in the write transaction itself)
+    public Mono<Long> statsVersion(String userId) {
+        return syncService.currentVersion(userId);
+    }
+
+    //  Delta sync: what changed since the given version (0 = everything, paged with cursor)
+    public Mono<TodoChangesDto> getChanges(String userId, long since, String cursor, Integer limit) {
+        return syncService.changesSince(userId, since, cursor, pageSize(limit))
+                .transform(metrics.mono("getChanges"));
+    }
+
+    private <T> Mono<T> inTransaction(Mono<T> work) {
+        return inTransaction(work, TRANSIENT_TRANSACTION_RETRY);
+    }
+
+    private <T> Mono<T> inTransaction(Mono<T> work, Retry retry) {
+        return work.as(transactionalOperator::transactional)
+                .retryWhen(retry);
+    }
+
+    private static boolean isTransientTransactionError(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof MongoException mongo && mongo.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,56 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Latency of TodoService methods: todo.service{method, outcome}, timed from subscription to the terminal signal.
+// Timers are looked up once per (method, outcome) and then reused, so a call costs two nanoTime reads and a
+// map hit. Percentile histograms come from management.metrics.distribution.percentiles-histogram.todo.
+@Component
+public class TodoServiceMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TodoServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Use with Mono.transform
+    public <T> Function<Mono<T>, Mono<T>> mono(String method) {
+        return mono -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> record(method, signal, start));
+        });
+    }
+
+    // Use with Flux.transform; covers the whole stream
+    public <T> Function<Flux<T>, Flux<T>> flux(String method) {
+        return flux -> Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> record(method, signal, start));
+        });
+    }
+
+    private void record(String method, SignalType signal, long start) {
+        String outcome = switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+        timers.computeIfAbsent(method + ':' + outcome, key -> Timer.builder("todo.service")
+                        .description("TodoService method latency")
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
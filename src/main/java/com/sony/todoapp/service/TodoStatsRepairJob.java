@@ -0,0 +1,138 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.ArchivedTodo;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoStats;
+import com.sony.todoapp.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Background job that recomputes todo_stats from the todos and todos_archive collections (and backfills it on first start).
+// Users are processed in batches, each batch in parallel. Every user is recounted in its own transaction:
+// a write that lands meanwhile also touches the stats document, so one of the two conflicts and the
+// counters never end up stale. A user that loses such a conflict is simply checked again next run.
+// A run holds the "stats-repair" lease (TodoLeases), so instances do not recount (and bump versions) side by side.
+@Slf4j
+@Component
+public class TodoStatsRepairJob {
+
+    private static final String LEASE_ID = "stats-repair";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final TodoSyncService syncService;
+    private final TodoLeases leases;
+    private final Duration interval;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration lease;
+    private final Counter repaired;
+
+    private Disposable subscription;
+
+    public TodoStatsRepairJob(ReactiveMongoTemplate mongoTemplate,
+                              TransactionalOperator transactionalOperator,
+                              TodoSyncService syncService,
+                              TodoLeases leases,
+                              MeterRegistry meterRegistry,
+                              @Value("${todo.stats.repair-interval:6h}") Duration interval,
+                              @Value("${todo.stats.repair-batch-size:500}") int batchSize,
+                              @Value("${todo.stats.repair-concurrency:8}") int concurrency,
+                              @Value("${todo.stats.repair-lease:1m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionalOperator = transactionalOperator;
+        this.syncService = syncService;
+        this.leases = leases;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.lease = lease;
+        this.repaired = Counter.builder("todo.stats.repaired")
+                .description("Users whose task counters had drifted and were recomputed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> leases.runExclusively(LEASE_ID, lease, interval, repairAll())
+                        .doOnNext(fixed -> {
+                            if (fixed > 0) {
+                                log.info("Recomputed task counters for {} users", fixed);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Task counter repair failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        // Hand the lease over right away instead of letting it expire
+        leases.release(LEASE_ID)
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+    }
+
+    // Emits the number of users whose counters were changed
+    Mono<Long> repairAll() {
+        Query userIds = new Query();
+        userIds.fields().include("_id");
+
+        return mongoTemplate.find(userIds, User.class)
+                .map(User::getId)
+                .buffer(batchSize)
+                .concatMap(batch -> Flux.fromIterable(batch).flatMap(this::repair, concurrency))
+                .filter(changed -> changed)
+                .count();
+    }
+
+    private Mono<Boolean> repair(String userId) {
+        Query todos = Query.query(Criteria.where("userId").is(userId));
+        Query completed = Query.query(Criteria.where("userId").is(userId).and("completed").is(true));
+
+        // Archived todos still count as completed
+        return Mono.zip(mongoTemplate.count(todos, Todo.class), mongoTemplate.count(completed, Todo.class),
+                        mongoTemplate.count(todos, ArchivedTodo.class))
+                .flatMap(counts -> {
+                    TodoStats actual = new TodoStats(userId, counts.getT1() - counts.getT2(), counts.getT2() + counts.getT3());
+                    return mongoTemplate.findById(userId, TodoStats.class)
+                            .defaultIfEmpty(new TodoStats(userId, 0, 0))
+                            .flatMap(stored -> stored.equals(actual)
+                                    ? Mono.just(false)
+                                    // Bump the version too, or stats ETags handed out before would stay valid
+                                    : mongoTemplate.save(actual).then(syncService.nextVersion(userId)).thenReturn(true));
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(changed -> {
+                    if (changed) {
+                        repaired.increment();
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.debug("Skipping counter repair for user {} this run", userId, e);
+                    return Mono.just(false);
+                });
+    }
+}
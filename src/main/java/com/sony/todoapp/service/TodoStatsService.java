@@ -0,0 +1,52 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoStatsDto;
+import com.sony.todoapp.entity.TodoStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+// Per-user pending/completed counters (todo_stats). The record* methods must be called inside the
+// transaction of the write they describe; TodoStatsRepairJob recomputes them if they ever drift.
+@Service
+@RequiredArgsConstructor
+public class TodoStatsService {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    public Mono<Void> recordCreated(String userId, int count) {
+        return increment(userId, new Update().inc("pending", count));
+    }
+
+    public Mono<Void> recordCompleted(String userId) {
+        return recordCompleted(userId, 1);
+    }
+
+    public Mono<Void> recordCompleted(String userId, int count) {
+        return increment(userId, new Update().inc("pending", -count).inc("completed", count));
+    }
+
+    public Mono<Void> recordDeleted(String userId, boolean completed) {
+        return increment(userId, new Update().inc(completed ? "completed" : "pending", -1));
+    }
+
+    public Mono<Void> recordDeleted(String userId, int pending, int completed) {
+        return increment(userId, new Update().inc("pending", -pending).inc("completed", -completed));
+    }
+
+    // One primary-key read
+    public Mono<TodoStatsDto> getStats(String userId) {
+        return mongoOperations.findById(userId, TodoStats.class)
+                .map(stats -> new TodoStatsDto(stats.getPending(), stats.getCompleted(), stats.getPending() + stats.getCompleted()))
+                .defaultIfEmpty(new TodoStatsDto(0, 0, 0));
+    }
+
+    private Mono<Void> increment(String userId, Update update) {
+        return mongoOperations.upsert(Query.query(Criteria.where("_id").is(userId)), update, TodoStats.class)
+                .then();
+    }
+}
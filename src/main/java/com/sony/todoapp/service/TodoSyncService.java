@@ -0,0 +1,197 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoChangesDto;
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoSyncState;
+import com.sony.todoapp.entity.TodoTombstone;
+import com.sony.todoapp.mapper.TodoMapper;
+import com.sony.todoapp.repository.TodoOutboxRepository;
+import com.sony.todoapp.util.SyncCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-user change versions for delta sync (GET /todo/changes).
+// Every write to a user's todos takes the next value of that user's counter inside the write's own
+// transaction, so versions are unique per user and become visible in increasing order (concurrent
+// writers conflict on the counter and one of them is retried). Deletes leave a tombstone with their
+// version; TodoTombstoneCompactor removes old ones and clients behind that point are told to resync.
+@Service
+@RequiredArgsConstructor
+public class TodoSyncService {
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final TodoMapper mapper;
+    private final TodoOutboxRepository outboxRepository;
+
+    // Reserves count consecutive versions and emits the last one; call inside the write's transaction
+    public Mono<Long> reserveVersions(String userId, int count) {
+        return mongoOperations.findAndModify(
+                        Query.query(Criteria.where("_id").is(userId)),
+                        new Update().inc("version", count).currentDate("updatedAt"),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        TodoSyncState.class)
+                .map(TodoSyncState::getVersion);
+    }
+
+    public Mono<Long> nextVersion(String userId) {
+        return reserveVersions(userId, 1);
+    }
+
+    // Call inside the delete's transaction
+    public Mono<Void> recordDelete(String todoId, String userId) {
+        return nextVersion(userId)
+                .flatMap(version -> mongoOperations.insert(new TodoTombstone(todoId, userId, version, Instant.now())))
+                .then();
+    }
+
+    // Tombstones for several deletes from one counter bump; call inside the delete's transaction
+    public Mono<Void> recordDeletes(List<String> todoIds, String userId) {
+        if (todoIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return reserveVersions(userId, todoIds.size())
+                .flatMapMany(last -> {
+                    Instant now = Instant.now();
+                    long first = last - todoIds.size() + 1;
+                    List<TodoTombstone> tombstones = new ArrayList<>(todoIds.size());
+                    for (int i = 0; i < todoIds.size(); i++) {
+                        tombstones.add(new TodoTombstone(todoIds.get(i), userId, first + i, now));
+                    }
+                    return mongoOperations.insertAll(tombstones);
+                })
+                .then();
+    }
+
+    // Current version; it changes with every write to the user's todos
+    public Mono<Long> currentVersion(String userId) {
+        return mongoOperations.findById(userId, TodoSyncState.class)
+                .map(TodoSyncState::getVersion)
+                .defaultIfEmpty(0L);
+    }
+
+    // Stamps the time the search engine acknowledged one of the user's changes. The relay calls this before it
+    // deletes the outbox event, so once no events are left every acknowledgement has been stamped.
+    public Mono<Void> recordIndexed(String userId) {
+        return mongoOperations.updateFirst(
+                        Query.query(Criteria.where("_id").is(userId)),
+                        new Update().currentDate("indexedAt"),
+                        TodoSyncState.class)
+                .then();
+    }
+
+    // Current version, but only once the search engine is known to reflect it: no outbox events left for the user,
+    // and both the last write and the last acknowledged index change older than settle (the Elasticsearch refresh
+    // interval plus a margin; an acknowledged change is only searchable after the next refresh). Empty otherwise.
+    // The outbox is checked before the state is read: a write that lands in between is still inside settle.
+    public Mono<Long> settledVersion(String userId, Duration settle) {
+        return outboxRepository.existsByUserId(userId)
+                .filter(pending -> !pending)
+                .flatMap(none -> mongoOperations.findById(userId, TodoSyncState.class)
+                        .defaultIfEmpty(new TodoSyncState(userId, 0, 0, null)))
+                .filter(state -> settled(state.getUpdatedAt(), settle) && settled(state.getIndexedAt(), settle))
+                .map(TodoSyncState::getVersion);
+    }
+
+    private static boolean settled(Instant at, Duration settle) {
+        return at == null || at.isBefore(Instant.now().minus(settle));
+    }
+
+    // since == 0 is a snapshot of the live todos, limit at a time (cursor continues it); otherwise up to limit
+    // changes after since, oldest first
+    public Mono<TodoChangesDto> changesSince(String userId, long since, String cursor, int limit) {
+        // Read the counter first: every version up to it is already committed, so it is safe to hand back
+        return mongoOperations.findById(userId, TodoSyncState.class)
+                .defaultIfEmpty(new TodoSyncState(userId, 0, 0, null))
+                .flatMap(state -> {
+                    if (since < 0 || since > state.getVersion() || (since > 0 && since < state.getCompactedThrough())) {
+                        return Mono.just(TodoChangesDto.resync());
+                    }
+                    return since == 0
+                            ? snapshot(userId, SyncCursor.decode(cursor), limit, state)
+                            : delta(userId, since, limit, state);
+                });
+    }
+
+    // Keyset pages over (changeVersion, _id). A todo written while the snapshot is paged moves past the cursor
+    // and is read again on a later page; deletes are caught by the first delta, which starts from the version
+    // the snapshot began at.
+    private Mono<TodoChangesDto> snapshot(String userId, SyncCursor after, int limit, TodoSyncState state) {
+        long version = after == null ? state.getVersion() : after.version();
+        Criteria live = Criteria.where("userId").is(userId);
+        if (after != null) {
+            Object afterId = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+            live = live.orOperator(
+                    Criteria.where("changeVersion").gt(after.changeVersion()),
+                    Criteria.where("changeVersion").is(after.changeVersion()).and("_id").gt(afterId));
+        }
+        Query page = Query.query(live)
+                .with(Sort.by("changeVersion", "_id"))
+                .limit(limit + 1);
+
+        return mongoOperations.find(page, Todo.class)
+                .collectList()
+                .map(todos -> {
+                    if (todos.size() <= limit) {
+                        return new TodoChangesDto(version, todos.stream().map(mapper::toDto).toList(), List.of(), false, false);
+                    }
+                    List<Todo> shown = todos.subList(0, limit);
+                    Todo last = shown.get(limit - 1);
+                    String next = new SyncCursor(version, last.getChangeVersion(), last.getId()).encode();
+                    return new TodoChangesDto(0, shown.stream().map(mapper::toDto).toList(), List.of(), true, false, next);
+                });
+    }
+
+    private Mono<TodoChangesDto> delta(String userId, long since, int limit, TodoSyncState state) {
+        Query changed = Query.query(Criteria.where("userId").is(userId).and("changeVersion").gt(since))
+                .with(Sort.by("changeVersion"))
+                .limit(limit + 1);
+        Query deleted = Query.query(Criteria.where("userId").is(userId).and("version").gt(since))
+                .with(Sort.by("version"))
+                .limit(limit + 1);
+
+        return Mono.zip(mongoOperations.find(changed, Todo.class).collectList(),
+                        mongoOperations.find(deleted, TodoTombstone.class).collectList())
+                .map(found -> merge(found.getT1(), found.getT2(), limit, state));
+    }
+
+    // Both lists are sorted by version; take the oldest limit changes across the two
+    private TodoChangesDto merge(List<Todo> todos, List<TodoTombstone> tombstones, int limit, TodoSyncState state) {
+        List<TodoResponseDto> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        long last = 0;
+        int t = 0;
+        int d = 0;
+
+        while (changed.size() + deleted.size() < limit && (t < todos.size() || d < tombstones.size())) {
+            boolean takeTodo = d >= tombstones.size()
+                    || (t < todos.size() && todos.get(t).getChangeVersion() < tombstones.get(d).getVersion());
+            if (takeTodo) {
+                Todo todo = todos.get(t++);
+                changed.add(mapper.toDto(todo));
+                last = todo.getChangeVersion();
+            } else {
+                TodoTombstone tombstone = tombstones.get(d++);
+                deleted.add(tombstone.getId());
+                last = tombstone.getVersion();
+            }
+        }
+
+        boolean hasMore = t < todos.size() || d < tombstones.size();
+        long version = hasMore ? last : Math.max(last, state.getVersion());
+        return new TodoChangesDto(version, changed, deleted, hasMore, false);
+    }
+}
@@ -0,0 +1,111 @@
+package com.sony.todoapp.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.sony.todoapp.entity.TodoSyncState;
+import com.sony.todoapp.entity.TodoTombstone;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Background job that drops delete tombstones older than the retention horizon.
+// For each user it first raises compactedThrough to the newest tombstone being dropped, then deletes
+// them, so a client whose ?since= falls before that point is told to resync instead of missing deletes.
+// A run holds the "tombstone-compaction" lease (TodoLeases), so only one instance compacts at a time.
+@Slf4j
+@Component
+public class TodoTombstoneCompactor {
+
+    private static final String LEASE_ID = "tombstone-compaction";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoLeases leases;
+    private final Duration retention;
+    private final Duration interval;
+    private final Duration lease;
+    private final Counter compacted;
+
+    private Disposable subscription;
+
+    public TodoTombstoneCompactor(ReactiveMongoTemplate mongoTemplate,
+                                  TodoLeases leases,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${todo.sync.tombstone-retention:30d}") Duration retention,
+                                  @Value("${todo.sync.compaction-interval:1h}") Duration interval,
+                                  @Value("${todo.sync.compaction-lease:1m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.leases = leases;
+        this.retention = retention;
+        this.interval = interval;
+        this.lease = lease;
+        this.compacted = Counter.builder("todo.sync.tombstones.compacted")
+                .description("Delete tombstones removed by compaction")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> leases.runExclusively(LEASE_ID, lease, interval, compact())
+                        .doOnNext(removed -> {
+                            if (removed > 0) {
+                                log.info("Compacted {} todo tombstones older than {}", removed, retention);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Tombstone compaction failed", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        // Hand the lease over right away instead of letting it expire
+        leases.release(LEASE_ID)
+                .onErrorResume(e -> Mono.empty())
+                .block(Duration.ofSeconds(5));
+    }
+
+    // Emits the number of tombstones removed
+    Mono<Long> compact() {
+        Instant horizon = Instant.now().minus(retention);
+        Aggregation expiredPerUser = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("deletedAt").lt(horizon)),
+                Aggregation.group("userId").max("version").as("version"));
+
+        return mongoTemplate.aggregate(expiredPerUser, TodoTombstone.class, Document.class)
+                .concatMap(user -> compactUser(user.getString("_id"), user.get("version", Number.class).longValue()))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> compactUser(String userId, long through) {
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                        new Update().max("compactedThrough", through),
+                        TodoSyncState.class)
+                .then(mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)
+                        .and("version").lte(through)), TodoTombstone.class))
+                .map(DeleteResult::getDeletedCount)
+                .doOnNext(removed -> compacted.increment(removed));
+    }
+}
@@ -1,7 +1,7 @@
 package com.sony.todoapp.util;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -15,6 +15,11 @@ public class JwtUtil {
     private static final String SECRET = "MySuperSecretKeyMySuperSecretKey123!";
     private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
 
+    // Parsers are immutable and thread-safe, so build it once
+    private static final JwtParser PARSER = Jwts.parser()
+            .verifyWith(SECRET_KEY)
+            .build();
+
     // Token expiration time (1 day)
     private static final long EXPIRATION = 86400000L;
 
@@ -28,24 +33,18 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Verify signature and expiry in one parse (throws JwtException / ExpiredJwtException)
+    public static Claims verify(String token) {
+        return PARSER.parseSignedClaims(token).getPayload();
+    }
+
     // Extract userId from a JWT token
     public static String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return verify(token).getSubject();
     }
 
     // Check if the token is expired
     public static boolean isTokenExpired(String token) {
-        Jws<Claims> parsedJws = Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token);
-
-        return parsedJws.getBody().getExpiration().before(new Date());
+        return verify(token).getExpiration().before(new Date());
     }
 }
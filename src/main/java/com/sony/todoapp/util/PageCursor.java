@@ -0,0 +1,39 @@
+package com.sony.todoapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+// Opaque keyset cursor for todo listings ordered by (createdAt desc, id desc).
+// createdAt is kept as UTC epoch millis, the form Elasticsearch returns for date sort values.
+public record PageCursor(long createdAtMillis, String id) {
+
+    public static PageCursor of(LocalDateTime createdAt, String id) {
+        return new PageCursor(createdAt.toInstant(ZoneOffset.UTC).toEpochMilli(), id);
+    }
+
+    // null/blank → first page; anything else must be a cursor we issued
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new PageCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAtMillis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sony.todoapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor for a paged since=0 snapshot, ordered by (changeVersion asc, id asc).
+// version is the user's change version when the snapshot started; the last page hands it back so the
+// client's first delta also picks up whatever changed or was deleted while the snapshot was being read.
+public record SyncCursor(long version, long changeVersion, String id) {
+
+    // null/blank → first page; anything else must be a cursor we issued
+    public static SyncCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            return new SyncCursor(Long.parseLong(raw[0]), Long.parseLong(raw[1]), raw[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = version + ":" + changeVersion + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,16 +1,29 @@
 package com.sony.todoapp.controller;
 
+import com.sony.todoapp.dto.BulkImportResultDto;
+import com.sony.todoapp.dto.BulkTodoRequestDto;
+import com.sony.todoapp.dto.BulkTodoResultDto;
+import com.sony.todoapp.dto.TodoChangesDto;
+import com.sony.todoapp.dto.TodoPageDto;
 import com.sony.todoapp.dto.TodoRequestDto;
 import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.dto.TodoStatsDto;
 import com.sony.todoapp.entity.User;
+import com.sony.todoapp.exception.PayloadTooLargeException;
 import com.sony.todoapp.repository.UserRepository;
+import com.sony.todoapp.security.PrincipalCache;
+import com.sony.todoapp.security.VerifiedTokenCache;
 import com.sony.todoapp.service.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
@@ -23,8 +36,12 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @WebFluxTest(TodoController.class)
 @Import(TodoControllerTest.TestSecurityConfig.class)
@@ -34,9 +51,18 @@ public class TodoControllerTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockitoBean
+    private PrincipalCache principalCache;
+
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockitoBean
     private TodoService todoService;
 
@@ -64,9 +90,19 @@ public class TodoControllerTest {
         TestingAuthenticationToken auth =
                 new TestingAuthenticationToken(mockUser, null);
         SecurityContextHolder.getContext().setAuthentication(auth);
+
+        Mockito.when(todoService.listVersion(Mockito.anyString())).thenReturn(Mono.empty());
+        Mockito.when(todoService.statsVersion(Mockito.anyString())).thenReturn(Mono.empty());
     }
 
     static class TestSecurityConfig {
+        // The web slice has no metrics auto-configuration; the filter and the exception handler record to this
+        @org.springframework.context.annotation.Bean
+        @ConditionalOnMissingBean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
         @org.springframework.context.annotation.Bean
         public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
             return http
@@ -102,8 +138,9 @@ public class TodoControllerTest {
     @Test
     @WithMockUser(username = "user123")
     void testGetAll() {
-        Mockito.when(todoService.getAllTasks(Mockito.eq("user123")))
-                .thenReturn(Flux.just(responseDto));
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.any()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), null)));
 
         webTestClient.get()
                 .uri("/todo")
@@ -120,11 +157,28 @@ public class TodoControllerTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetAllNextPage() {
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.isNull(), Mockito.eq("abc"), Mockito.eq(1),
+                        Mockito.any()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), "def")));
+
+        webTestClient.get()
+                .uri("/todo?cursor=abc&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "def")
+                .expectBodyList(TodoResponseDto.class)
+                .hasSize(1);
+    }
+
     @Test
     @WithMockUser(username = "user123")
     void testSearch() {
-        Mockito.when(todoService.searchTasks(Mockito.eq("Task 1"), Mockito.eq("user123")))
-                .thenReturn(Flux.just(responseDto));
+        Mockito.when(todoService.searchTasksPage(Mockito.eq("Task 1"), Mockito.eq("user123"), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.any()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), null)));
 
         webTestClient.get()
                 .uri(uriBuilder -> uriBuilder
@@ -210,11 +264,32 @@ public class TodoControllerTest {
                 .expectBody().isEmpty();
     }
 
+    @Test
+    @WithMockUser(username = "user123")
+    void testBulkDelete() {
+        Mockito.when(todoService.deleteTasks(Mockito.any(BulkTodoRequestDto.class), Mockito.eq("user123")))
+                .thenReturn(Flux.just(
+                        BulkTodoResultDto.of("1", BulkTodoResultDto.Status.DELETED),
+                        BulkTodoResultDto.of("2", BulkTodoResultDto.Status.NOT_FOUND)));
+
+        webTestClient.method(HttpMethod.DELETE)
+                .uri("/todo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BulkTodoRequestDto(List.of("1", "2"), null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("1")
+                .jsonPath("$[0].status").isEqualTo("DELETED")
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND");
+    }
+
     @Test
     @WithMockUser(username = "user123")
     void testGetCompletedTasks() {
-        Mockito.when(todoService.getCompletedTasksEs(Mockito.eq("user123")))
-                .thenReturn(Flux.just(responseDto));
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.eq(true), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.any()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), null)));
 
         webTestClient.get()
                 .uri("/todo/completed")
@@ -230,11 +305,31 @@ public class TodoControllerTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetCompletedTasksWithArchive() {
+        responseDto.setCompleted(true);
+        Mockito.when(todoService.getCompletedPageWithArchive(Mockito.eq("user123"), Mockito.isNull(), Mockito.isNull()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), "next")));
+
+        webTestClient.get()
+                .uri("/todo/completed?include=archive")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(TodoController.NEXT_CURSOR_HEADER, "next")
+                .expectBodyList(TodoResponseDto.class)
+                .hasSize(1);
+
+        Mockito.verify(todoService, Mockito.never()).getTasksPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any());
+    }
+
     @Test
     @WithMockUser(username = "user123")
     void testGetPendingTasks() {
-        Mockito.when(todoService.getPendingTasksEs(Mockito.eq("user123")))
-                .thenReturn(Flux.just(responseDto));
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.eq(false), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.any()))
+                .thenReturn(Mono.just(new TodoPageDto(List.of(responseDto), null)));
 
         webTestClient.get()
                 .uri("/todo/pending")
@@ -249,4 +344,239 @@ public class TodoControllerTest {
                     assert (!resp.isCompleted());
                 });
     }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testInvalidCursorIsBadRequestOnEveryList() {
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.any(), Mockito.eq("bad"), Mockito.any(),
+                        Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor")));
+        Mockito.when(todoService.getCompletedPageWithArchive(Mockito.eq("user123"), Mockito.eq("bad"), Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor")));
+        Mockito.when(todoService.searchTasksPage(Mockito.eq("Task"), Mockito.eq("user123"), Mockito.eq("bad"), Mockito.any(),
+                        Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor")));
+
+        for (String uri : List.of("/todo?cursor=bad", "/todo/completed?cursor=bad", "/todo/completed?include=archive&cursor=bad",
+                "/todo/pending?cursor=bad", "/todo/search?keyword=Task&cursor=bad")) {
+            webTestClient.get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testExceptionsAreCountedOnTheInjectedRegistry() {
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.any(), Mockito.eq("bad"), Mockito.any(),
+                        Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor")));
+        double before = meterRegistry.counter("todo.exceptions", "type", "IllegalArgumentException").count();
+
+        webTestClient.get()
+                .uri("/todo?cursor=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertEquals(before + 1, meterRegistry.counter("todo.exceptions", "type", "IllegalArgumentException").count());
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testBulkAddOverTheCapIsPayloadTooLarge() {
+        Mockito.when(todoService.addMultipleTasks(Mockito.any(), Mockito.any()))
+                .thenReturn(Flux.error(new PayloadTooLargeException("At most 1000 tasks per JSON array")));
+
+        webTestClient.post()
+                .uri("/todo/add/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"name\":\"Task 1\"}]")
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testStreamingImport() {
+        Mockito.when(todoService.importTasks(Mockito.any(), Mockito.any()))
+                .thenReturn(Flux.just(
+                        BulkImportResultDto.created(0, "1"),
+                        BulkImportResultDto.rejected(1, "Name cannot be blank")));
+
+        webTestClient.post()
+                .uri("/todo/add/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\":\"Task 1\"}\n{\"name\":\"\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BulkImportResultDto.class)
+                .value(results -> {
+                    assertEquals(2, results.size());
+                    assertEquals(BulkImportResultDto.Status.CREATED, results.get(0).getStatus());
+                    assertEquals("1", results.get(0).getId());
+                    assertEquals(BulkImportResultDto.Status.REJECTED, results.get(1).getStatus());
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testStreamPendingTasks() {
+        Mockito.when(todoService.getPendingTasksEs(Mockito.eq("user123")))
+                .thenReturn(Flux.just(responseDto, responseDto));
+
+        webTestClient.get()
+                .uri("/todo/pending")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TodoResponseDto.class)
+                .hasSize(2);
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testFailedStreamEndsWithErrorLine() {
+        Mockito.when(todoService.getPendingTasksEs(Mockito.eq("user123")))
+                .thenReturn(Flux.concat(Flux.just(responseDto), Flux.error(new IllegalStateException("search unavailable"))));
+
+        String body = webTestClient.get()
+                .uri("/todo/pending")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"error\":\"search unavailable\"}", lines[1]);
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testFailedStreamEndsWithErrorEvent() {
+        Mockito.when(todoService.getAllTasks(Mockito.eq("user123")))
+                .thenReturn(Flux.error(new IllegalStateException("search unavailable")));
+
+        String body = webTestClient.get()
+                .uri("/todo")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(body.contains("event:error"));
+        assertTrue(body.contains("search unavailable"));
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetChanges() {
+        Mockito.when(todoService.getChanges(Mockito.eq("user123"), Mockito.eq(7L), Mockito.isNull(), Mockito.isNull()))
+                .thenReturn(Mono.just(new TodoChangesDto(9, List.of(responseDto), List.of("2"), false, false)));
+
+        webTestClient.get()
+                .uri("/todo/changes?since=7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TodoChangesDto.class)
+                .value(changes -> {
+                    assertEquals(9, changes.getVersion());
+                    assertEquals(1, changes.getChanged().size());
+                    assertEquals(List.of("2"), changes.getDeleted());
+                    assertFalse(changes.isResyncRequired());
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetStats() {
+        Mockito.when(todoService.getStats("user123"))
+                .thenReturn(Mono.just(new TodoStatsDto(12, 340, 352)));
+
+        webTestClient.get()
+                .uri("/todo/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.pending").isEqualTo(12)
+                .jsonPath("$.completed").isEqualTo(340)
+                .jsonPath("$.total").isEqualTo(352);
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testSuggest() {
+        Mockito.when(todoService.suggest("gro", "user123"))
+                .thenReturn(Mono.just(List.of("Groceries", "Grow tomatoes")));
+
+        webTestClient.get()
+                .uri("/todo/suggest?prefix=gro")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(String.class)
+                .isEqualTo(List.of("Groceries", "Grow tomatoes"));
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetAllNotModified() {
+        Mockito.when(todoService.listVersion("user123")).thenReturn(Mono.just(42L));
+
+        webTestClient.get()
+                .uri("/todo")
+                .header("If-None-Match", "\"user123-42\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"user123-42\"");
+
+        Mockito.verify(todoService, Mockito.never()).getTasksPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any());
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testListVersionIsReadOnce() {
+        AtomicInteger reads = new AtomicInteger();
+        Mockito.when(todoService.listVersion("user123")).thenReturn(Mono.fromSupplier(() -> {
+            reads.incrementAndGet();
+            return 42L;
+        }));
+        // The page keys its coalescing on the version it is handed
+        Mockito.when(todoService.getTasksPage(Mockito.eq("user123"), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.any()))
+                .thenAnswer(inv -> inv.<Mono<Long>>getArgument(4)
+                        .map(version -> new TodoPageDto(List.of(responseDto), null)));
+
+        webTestClient.get()
+                .uri("/todo")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"user123-42\"");
+
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    void testGetStatsETag() {
+        Mockito.when(todoService.statsVersion("user123")).thenReturn(Mono.just(43L));
+        Mockito.when(todoService.getStats("user123"))
+                .thenReturn(Mono.just(new TodoStatsDto(12, 340, 352)));
+
+        webTestClient.get()
+                .uri("/todo/stats")
+                .header("If-None-Match", "\"user123-42\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"user123-43\"")
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(352);
+    }
 }
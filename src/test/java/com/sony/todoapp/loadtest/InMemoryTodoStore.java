@@ -0,0 +1,298 @@
+package com.sony.todoapp.loadtest;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.sony.todoapp.dto.TodoStatsDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.repository.TodoRepository;
+import com.sony.todoapp.util.PageCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.stream.StreamSupport;
+
+// The todos collection in memory, behind the two interfaces TodoService and EmbeddedTodoSearchEngine reach it
+// through: TodoRepository, and ReactiveMongoOperations for the conditional find-and-modify / find-and-remove
+// writes and the bulk complete / delete chunks. Each call goes through StoreFaults once, like one round trip to
+// Mongo. Every method TodoService and the search engine call is implemented; the list is checked against the
+// interfaces at startup (StoreProxies), and anything else throws.
+// Stored todos are never changed in place (they may be being read); a write replaces them, and the per-user
+// listing is updated under the same per-id lock.
+class InMemoryTodoStore {
+
+    // Listing order (createdAt desc, id desc), the order PageCursor pages through
+    private static final Comparator<PageCursor> NEWEST_FIRST = Comparator.comparingLong(PageCursor::createdAtMillis)
+            .thenComparing(PageCursor::id)
+            .reversed();
+
+    private final ConcurrentHashMap<String, Todo> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<PageCursor, Todo>> byUser = new ConcurrentHashMap<>();
+    private final StoreFaults faults;
+
+    InMemoryTodoStore(StoreFaults faults) {
+        this.faults = faults;
+    }
+
+    TodoRepository repository() {
+        return StoreProxies.create(TodoRepository.class, Map.ofEntries(
+                Map.entry("save", (method, args) -> faults.apply(Mono.fromSupplier(() -> save((Todo) args[0])))),
+                Map.entry("saveAll", (method, args) -> args[0] instanceof Iterable<?> todos
+                        ? faults.apply(Flux.fromIterable(todos).map(todo -> save((Todo) todo)))
+                        : StoreProxies.unsupported(method)),
+                Map.entry("insert", (method, args) -> args[0] instanceof Iterable<?> todos
+                        ? faults.apply(Flux.fromIterable(todos).map(todo -> save((Todo) todo)))
+                        : StoreProxies.unsupported(method)),
+                Map.entry("findById", (method, args) -> args[0] instanceof String id
+                        ? faults.apply(Mono.fromSupplier(() -> byId.get(id)))
+                        : StoreProxies.unsupported(method)),
+                Map.entry("findAllById", (method, args) -> args[0] instanceof Iterable<?> ids
+                        ? faults.apply(Flux.defer(() -> Flux.fromStream(StreamSupport.stream(ids.spliterator(), false)
+                                .map(byId::get)
+                                .filter(Objects::nonNull))))
+                        : StoreProxies.unsupported(method)),
+                Map.entry("findByIdAndUserId", (method, args) -> faults.apply(Mono.fromSupplier(
+                        () -> owned((String) args[0], (String) args[1])))),
+                Map.entry("findByUserId", (method, args) -> faults.apply(Flux.defer(
+                        () -> Flux.fromIterable(todos((String) args[0]).values())))),
+                Map.entry("findPage", (method, args) -> faults.apply(Flux.defer(() -> Flux.fromIterable(
+                        page((String) args[0], (Boolean) args[1], (String) args[2], (PageCursor) args[3], (int) args[4]))))),
+                Map.entry("findAllNewestFirst", (method, args) -> faults.apply(Flux.defer(() -> Flux.fromIterable(
+                        page((String) args[0], (Boolean) args[1], null, null, 0))))),
+                // The archive job does not run here, so todos_archive stays empty
+                Map.entry("findArchivedPage", (method, args) -> faults.apply(Flux.<Todo>empty()))));
+    }
+
+    ReactiveMongoOperations operations() {
+        return StoreProxies.create(ReactiveMongoOperations.class, Map.of(
+                "findAndModify", todosOnly((method, args) -> args.length >= 3 && args[1] instanceof Update update
+                        ? faults.apply(Mono.fromSupplier(() -> modify((Query) args[0], update)))
+                        : StoreProxies.unsupported(method)),
+                "findAndRemove", todosOnly((method, args) -> faults.apply(Mono.fromSupplier(() -> remove((Query) args[0])))),
+                "find", todosOnly((method, args) -> args.length == 2
+                        ? faults.apply(Flux.defer(() -> Flux.fromIterable(find((Query) args[0]))))
+                        : StoreProxies.unsupported(method)),
+                "remove", todosOnly((method, args) -> args.length == 2 && args[0] instanceof Query query
+                        ? faults.apply(Mono.fromSupplier(() -> DeleteResult.acknowledged(removeAll(query))))
+                        : StoreProxies.unsupported(method)),
+                "bulkOps", todosOnly((method, args) -> args.length == 2 ? bulkUpdates() : StoreProxies.unsupported(method))));
+    }
+
+    // Only the todos collection, addressed by entity class, lives here
+    private static BiFunction<Method, Object[], Object> todosOnly(BiFunction<Method, Object[], Object> call) {
+        return (method, args) -> args.length > 0 && args[args.length - 1] == Todo.class
+                ? call.apply(method, args)
+                : StoreProxies.unsupported(method);
+    }
+
+    // Unordered updateOne batches (bulk complete); execute applies them and is one round trip
+    private ReactiveBulkOperations bulkUpdates() {
+        List<Object[]> updates = new ArrayList<>();
+        AtomicReference<ReactiveBulkOperations> bulk = new AtomicReference<>();
+        bulk.set(StoreProxies.create(ReactiveBulkOperations.class, Map.of(
+                "updateOne", (method, args) -> {
+                    if (!(args.length == 2 && args[0] instanceof Query && args[1] instanceof Update)) {
+                        return StoreProxies.unsupported(method);
+                    }
+                    updates.add(args);
+                    return bulk.get();
+                },
+                "execute", (method, args) -> faults.apply(Mono.fromSupplier(() -> {
+                    int modified = 0;
+                    for (Object[] update : updates) {
+                        if (modify((Query) update[0], (Update) update[1]) != null) {
+                            modified++;
+                        }
+                    }
+                    return BulkWriteResult.acknowledged(0, modified, 0, modified, List.of(), List.of());
+                })))));
+        return bulk.get();
+    }
+
+    TodoStatsDto stats(String userId) {
+        long total = todos(userId).size();
+        long completed = todos(userId).values().stream().filter(Todo::isCompleted).count();
+        return new TodoStatsDto(total - completed, completed, total);
+    }
+
+    private Todo save(Todo todo) {
+        if (todo.getId() == null) {
+            todo.setId(new ObjectId().toHexString());
+        }
+        byId.put(todo.getId(), todo);
+        todos(todo.getUserId()).put(key(todo), todo);
+        return todo;
+    }
+
+    private Todo owned(String id, String userId) {
+        Todo todo = byId.get(id);
+        return todo != null && todo.getUserId().equals(userId) ? todo : null;
+    }
+
+    // The filter has an _id; the update only $sets fields
+    private Todo modify(Query query, Update update) {
+        Document filter = query.getQueryObject();
+        Document set = (Document) update.getUpdateObject().get("$set");
+        AtomicReference<Todo> modified = new AtomicReference<>();
+
+        byId.computeIfPresent((String) filter.get("_id"), (id, current) -> {
+            if (!matches(current, filter)) {
+                return current;
+            }
+            Todo next = new Todo(current.getId(), current.getName(), current.getDescription(), current.isCompleted(),
+                    current.getCreatedAt(), current.getCompletedAt(), current.getUserId(), current.getChangeVersion());
+            set.forEach((field, value) -> apply(next, field, value));
+            todos(next.getUserId()).put(key(next), next);
+            modified.set(next);
+            return next;
+        });
+        return modified.get();
+    }
+
+    private Todo remove(Query query) {
+        Document filter = query.getQueryObject();
+        AtomicReference<Todo> removed = new AtomicReference<>();
+
+        byId.computeIfPresent((String) filter.get("_id"), (id, current) -> {
+            if (!matches(current, filter)) {
+                return current;
+            }
+            todos(current.getUserId()).remove(key(current));
+            removed.set(current);
+            return null;
+        });
+        return removed.get();
+    }
+
+    private List<Todo> find(Query query) {
+        List<Todo> found = new ArrayList<>();
+        for (Todo todo : byId.values()) {
+            if (matches(todo, query.getQueryObject())) {
+                found.add(todo);
+                if (found.size() == query.getLimit()) {
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private long removeAll(Query query) {
+        long removed = 0;
+        for (Todo todo : find(query)) {
+            if (remove(Query.query(Criteria.where("_id").is(todo.getId()).and("userId").is(todo.getUserId()))) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // The part of Mongo's query language TodoService uses: equality (null also matches a missing field), $in,
+    // $lt, $and and $or
+    private static boolean matches(Todo todo, Document filter) {
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            boolean matched = switch (condition.getKey()) {
+                case "$and" -> clauses(condition.getValue()).stream().allMatch(clause -> matches(todo, clause));
+                case "$or" -> clauses(condition.getValue()).stream().anyMatch(clause -> matches(todo, clause));
+                default -> matchesField(field(todo, condition.getKey()), condition.getValue());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> clauses(Object value) {
+        return (List<Document>) value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean matchesField(Object actual, Object expected) {
+        if (!(expected instanceof Document operators)) {
+            return Objects.equals(actual, expected);
+        }
+        for (Map.Entry<String, Object> operator : operators.entrySet()) {
+            boolean matched = switch (operator.getKey()) {
+                case "$in" -> ((Collection<?>) operator.getValue()).contains(actual);
+                case "$lt" -> actual != null && ((Comparable) actual).compareTo(operator.getValue()) < 0;
+                default -> throw new UnsupportedOperationException("Not available in the load-test store: " + operator.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object field(Todo todo, String name) {
+        return switch (name) {
+            case "_id" -> todo.getId();
+            case "userId" -> todo.getUserId();
+            case "completed" -> todo.isCompleted();
+            case "createdAt" -> todo.getCreatedAt();
+            case "completedAt" -> todo.getCompletedAt();
+            default -> throw new UnsupportedOperationException("Not available in the load-test store: filter on " + name);
+        };
+    }
+
+    private static void apply(Todo todo, String field, Object value) {
+        switch (field) {
+            case "name" -> todo.setName((String) value);
+            case "description" -> todo.setDescription((String) value);
+            case "completed" -> todo.setCompleted((Boolean) value);
+            case "completedAt" -> todo.setCompletedAt((LocalDateTime) value);
+            case "changeVersion" -> todo.setChangeVersion((Long) value);
+            default -> throw new UnsupportedOperationException("Not available in the load-test store: $set " + field);
+        }
+    }
+
+    // Same semantics as TodoRepositoryCustomImpl.findPage: case-insensitive name filter; limit 0 (findAllNewestFirst) = no limit
+    private List<Todo> page(String userId, Boolean completed, String nameKeyword, PageCursor after, int limit) {
+        String keyword = nameKeyword == null ? null : nameKeyword.toLowerCase(Locale.ROOT);
+        NavigableMap<PageCursor, Todo> todos = after == null ? todos(userId) : todos(userId).tailMap(after, false);
+        List<Todo> items = new ArrayList<>();
+        for (Todo todo : todos.values()) {
+            if (completed != null && todo.isCompleted() != completed) {
+                continue;
+            }
+            if (keyword != null && !todo.getName().toLowerCase(Locale.ROOT).contains(keyword)) {
+                continue;
+            }
+            items.add(todo);
+            if (items.size() == limit) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    private ConcurrentSkipListMap<PageCursor, Todo> todos(String userId) {
+        return byUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>(NEWEST_FIRST));
+    }
+
+    private static PageCursor key(Todo todo) {
+        return PageCursor.of(todo.getCreatedAt(), todo.getId());
+    }
+}
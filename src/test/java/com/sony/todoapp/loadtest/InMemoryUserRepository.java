@@ -0,0 +1,45 @@
+package com.sony.todoapp.loadtest;
+
+import com.sony.todoapp.entity.User;
+import com.sony.todoapp.repository.UserRepository;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// UserRepository backed by two maps. Implements what AuthService and PrincipalCache call; the list is checked
+// against UserRepository at startup (StoreProxies), and the rest of the ReactiveMongoRepository surface throws.
+class InMemoryUserRepository {
+
+    private final ConcurrentHashMap<String, User> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, User> byUsername = new ConcurrentHashMap<>();
+    private final StoreFaults faults;
+
+    private InMemoryUserRepository(StoreFaults faults) {
+        this.faults = faults;
+    }
+
+    static UserRepository create(StoreFaults faults) {
+        InMemoryUserRepository users = new InMemoryUserRepository(faults);
+        return StoreProxies.create(UserRepository.class, Map.of(
+                "findByUsername", (method, args) -> faults.apply(Mono.fromSupplier(() -> users.byUsername.get((String) args[0]))),
+                "findById", (method, args) -> args[0] instanceof String id
+                        ? faults.apply(Mono.fromSupplier(() -> users.byId.get(id)))
+                        : StoreProxies.unsupported(method),
+                "insert", (method, args) -> args[0] instanceof User user
+                        ? faults.apply(Mono.fromCallable(() -> users.insert(user)))
+                        : StoreProxies.unsupported(method)));
+    }
+
+    private User insert(User user) {
+        user.setId(new ObjectId().toHexString());
+        // The unique username index in Mongo
+        if (byUsername.putIfAbsent(user.getUsername(), user) != null) {
+            throw new DuplicateKeyException("Duplicate username " + user.getUsername());
+        }
+        byId.put(user.getId(), user);
+        return user;
+    }
+}
@@ -0,0 +1,245 @@
+package com.sony.todoapp.loadtest;
+
+import com.sony.todoapp.dto.TodoRequestDto;
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.dto.UserRequestDto;
+import com.sony.todoapp.dto.UserResponseDto;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Open-loop load generator: requests are scheduled at a fixed rate whether or not earlier ones have finished,
+// and latency is measured from the scheduled start, so a stalled server shows up in the percentiles instead of
+// quietly lowering the request rate (no coordinated omission). Each request picks an operation by weight and
+// a user at random; users remember the ids of the tasks they created for complete and delete.
+class LoadGenerator {
+
+    enum Operation {
+        LOGIN(5), ADD(20), BULK_ADD(5), LIST(35), SEARCH(15), COMPLETE(10), DELETE(10);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int BULK_SIZE = 10;
+    private static final String PASSWORD = "load-test-password";
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration TICK = Duration.ofMillis(1);
+
+    private final WebClient client;
+    private final int rps;
+    private final int maxInFlight;
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final Operation[] mix;
+
+    LoadGenerator(WebClient client, int rps, int maxInFlight) {
+        this.client = client;
+        this.rps = rps;
+        this.maxInFlight = maxInFlight;
+
+        List<Operation> weighted = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int i = 0; i < operation.weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        this.mix = weighted.toArray(Operation[]::new);
+    }
+
+    // Registers the users and gives each a few tasks, so reads have something to return from the start
+    void setUp(int userCount) {
+        String run = Long.toHexString(System.nanoTime());
+        Flux.range(0, userCount)
+                .flatMap(i -> {
+                    VirtualUser user = new VirtualUser("load-" + run + "-" + i);
+                    return client.post().uri("/auth/register")
+                            .bodyValue(new UserRequestDto(user.username, PASSWORD))
+                            .retrieve()
+                            .bodyToMono(UserResponseDto.class)
+                            .doOnNext(response -> user.token = response.getToken())
+                            .then(addBulk(user).then())
+                            .thenReturn(user);
+                }, 16)
+                .doOnNext(users::add)
+                .blockLast(Duration.ofMinutes(2));
+    }
+
+    Report run(Duration duration) {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicLong issued = new AtomicLong();
+
+        Flux.interval(TICK)
+                .onBackpressureDrop()
+                .takeWhile(tick -> System.nanoTime() < end)
+                // Every request that is due by now, each with its own scheduled start time
+                .concatMapIterable(tick -> {
+                    long due = Math.min(System.nanoTime(), end);
+                    List<Long> scheduled = new ArrayList<>();
+                    for (long next = start + issued.get() * intervalNanos; next <= due; next += intervalNanos) {
+                        scheduled.add(next);
+                        issued.incrementAndGet();
+                    }
+                    return scheduled;
+                })
+                .flatMap(scheduledAt -> {
+                    Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                    VirtualUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+                    return execute(operation, user)
+                            .onErrorReturn(false)
+                            .doOnNext(ok -> stats.get(operation).record(scheduledAt, ok));
+                }, maxInFlight)
+                .blockLast(duration.plusMinutes(2));
+
+        return new Report(stats, System.nanoTime() - start);
+    }
+
+    private Mono<Boolean> execute(Operation operation, VirtualUser user) {
+        return switch (operation) {
+            case LOGIN -> client.post().uri("/auth/login")
+                    .bodyValue(new UserRequestDto(user.username, PASSWORD))
+                    .exchangeToMono(succeeded(response -> response.bodyToMono(UserResponseDto.class)
+                            .doOnNext(login -> user.token = login.getToken())));
+            case ADD -> client.post().uri("/todo/add")
+                    .headers(headers -> headers.setBearerAuth(user.token))
+                    .bodyValue(task(ThreadLocalRandom.current().nextInt(1_000_000)))
+                    .exchangeToMono(succeeded(response -> response.bodyToMono(TodoResponseDto.class)
+                            .doOnNext(created -> user.taskIds.add(created.getId()))));
+            case BULK_ADD -> addBulk(user);
+            case LIST -> client.get().uri("/todo")
+                    .headers(headers -> headers.setBearerAuth(user.token))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchangeToMono(succeeded(ClientResponse::releaseBody));
+            case SEARCH -> client.get().uri("/todo/search?keyword={keyword}", "groceries")
+                    .headers(headers -> headers.setBearerAuth(user.token))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchangeToMono(succeeded(ClientResponse::releaseBody));
+            case COMPLETE -> {
+                String id = user.taskIds.peekFirst();
+                yield id == null ? execute(Operation.ADD, user) : client.patch().uri("/todo/{id}/complete", id)
+                        .headers(headers -> headers.setBearerAuth(user.token))
+                        .exchangeToMono(succeeded(ClientResponse::releaseBody));
+            }
+            case DELETE -> {
+                String id = user.taskIds.pollLast();
+                yield id == null ? execute(Operation.ADD, user) : client.delete().uri("/todo/delete/{id}", id)
+                        .headers(headers -> headers.setBearerAuth(user.token))
+                        .exchangeToMono(succeeded(ClientResponse::releaseBody));
+            }
+        };
+    }
+
+    private Mono<Boolean> addBulk(VirtualUser user) {
+        List<TodoRequestDto> tasks = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            tasks.add(task(ThreadLocalRandom.current().nextInt(1_000_000)));
+        }
+        return client.post().uri("/todo/add/bulk")
+                .headers(headers -> headers.setBearerAuth(user.token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(tasks)
+                .exchangeToMono(succeeded(response -> response.bodyToFlux(TodoResponseDto.class)
+                        .doOnNext(created -> user.taskIds.add(created.getId()))
+                        .then()));
+    }
+
+    // 2xx → body handled by onSuccess, anything else → body discarded; emits whether the call succeeded
+    private static Function<ClientResponse, Mono<Boolean>> succeeded(Function<ClientResponse, Mono<?>> onSuccess) {
+        return response -> {
+            HttpStatusCode status = response.statusCode();
+            return status.is2xxSuccessful()
+                    ? onSuccess.apply(response).then(Mono.just(true))
+                    : response.releaseBody().then(Mono.just(false));
+        };
+    }
+
+    private static TodoRequestDto task(int n) {
+        TodoRequestDto task = new TodoRequestDto();
+        task.setName("Task " + n + ": buy groceries");
+        task.setDescription("Milk, eggs, bread and something for dinner");
+        return task;
+    }
+
+    private static final class VirtualUser {
+
+        final String username;
+        final ConcurrentLinkedDeque<String> taskIds = new ConcurrentLinkedDeque<>();
+        volatile String token;
+
+        VirtualUser(String username) {
+            this.username = username;
+        }
+    }
+
+    static final class Stats {
+
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long scheduledAt, boolean ok) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+            latencyMicros.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+
+    record Report(Map<Operation, Stats> stats, long elapsedNanos) {
+
+        long total() {
+            return stats.values().stream().mapToLong(s -> s.latencyMicros.getTotalCount()).sum();
+        }
+
+        long errors() {
+            return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        }
+
+        void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+            out.printf("%-10s %9s %8s %9s %9s %9s %9s %9s%n", "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            stats.forEach((operation, s) -> {
+                all.add(s.latencyMicros);
+                line(out, operation.name(), s.latencyMicros, s.errors.sum(), seconds);
+            });
+            line(out, "TOTAL", all, errors(), seconds);
+        }
+
+        private static void line(PrintStream out, String name, Histogram h, long errors, double seconds) {
+            out.printf("%-10s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, h.getTotalCount(), errors,
+                    h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0);
+        }
+    }
+}
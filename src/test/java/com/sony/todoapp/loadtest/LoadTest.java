@@ -0,0 +1,78 @@
+package com.sony.todoapp.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the application (web tier and TodoService, with Mongo stubbed) over HTTP at a fixed request rate and
+// prints per-operation throughput and latency percentiles. Off by default; run with ./mvnw test -Ploadtest
+// (settings in application-loadtest.properties, each overridable with -Dloadtest.rps=... and so on).
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(classes = LoadTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Value("${loadtest.rps}")
+    private int rps;
+
+    @Value("${loadtest.duration}")
+    private Duration duration;
+
+    @Value("${loadtest.warmup}")
+    private Duration warmup;
+
+    @Value("${loadtest.users}")
+    private int users;
+
+    @Value("${loadtest.max-in-flight}")
+    private int maxInFlight;
+
+    @Test
+    void sustainedMixedLoad() {
+        // One connection per in-flight request, so the client pool never becomes the bottleneck being measured
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            WebClient client = webClientBuilder
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                    .build();
+
+            LoadGenerator generator = new LoadGenerator(client, rps, maxInFlight);
+            generator.setUp(users);
+
+            // JIT, connection pool and caches; these numbers are thrown away
+            generator.run(warmup);
+
+            LoadGenerator.Report report = generator.run(duration);
+            System.out.printf("%nLoad test: %d req/s target for %s, %d users, max %d in flight%n",
+                    rps, duration, users, maxInFlight);
+            report.print(System.out);
+
+            assertTrue(report.total() > 0, "no requests completed");
+        } finally {
+            connections.dispose();
+        }
+    }
+}
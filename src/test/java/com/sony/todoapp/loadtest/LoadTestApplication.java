@@ -0,0 +1,149 @@
+package com.sony.todoapp.loadtest;
+
+import com.sony.todoapp.config.SecurityConfig;
+import com.sony.todoapp.controller.AuthController;
+import com.sony.todoapp.controller.TodoController;
+import com.sony.todoapp.exception.GlobalExceptionHandler;
+import com.sony.todoapp.mapper.TodoMapper;
+import com.sony.todoapp.mapper.TodoMapperImpl;
+import com.sony.todoapp.repository.TodoRepository;
+import com.sony.todoapp.repository.UserRepository;
+import com.sony.todoapp.security.JwtAuthenticationFilter;
+import com.sony.todoapp.security.PasswordHasher;
+import com.sony.todoapp.security.PrincipalCache;
+import com.sony.todoapp.security.RateLimiter;
+import com.sony.todoapp.security.VerifiedTokenCache;
+import com.sony.todoapp.service.AuthService;
+import com.sony.todoapp.service.EmbeddedTodoSearchEngine;
+import com.sony.todoapp.service.TodoChangeFeed;
+import com.sony.todoapp.service.TodoOutboxService;
+import com.sony.todoapp.service.TodoReadCoalescer;
+import com.sony.todoapp.service.TodoSearchCache;
+import com.sony.todoapp.service.TodoSearchEngine;
+import com.sony.todoapp.service.TodoService;
+import com.sony.todoapp.service.TodoServiceMetrics;
+import com.sony.todoapp.service.TodoStatsService;
+import com.sony.todoapp.service.TodoSyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.elasticsearch.ReactiveElasticsearchRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchRestClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.elasticsearch.ReactiveElasticsearchClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+// The application (controllers, security chain, rate limiter, exception handling, the real TodoService with its
+// read coalescer, search cache and metrics) over the embedded search engine and in-memory Mongo stand-ins, with
+// every Mongo and Elasticsearch auto-configuration switched off: nothing here opens a connection to another
+// process. Only the Mongo side is stubbed (InMemoryTodoStore, MongoWriteSide). Used by LoadTest with the
+// "loadtest" profile.
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        MongoAutoConfiguration.class,
+        MongoReactiveAutoConfiguration.class,
+        MongoDataAutoConfiguration.class,
+        MongoReactiveDataAutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class,
+        MongoReactiveRepositoriesAutoConfiguration.class,
+        ElasticsearchClientAutoConfiguration.class,
+        ElasticsearchRestClientAutoConfiguration.class,
+        ReactiveElasticsearchClientAutoConfiguration.class,
+        ElasticsearchDataAutoConfiguration.class,
+        ElasticsearchRepositoriesAutoConfiguration.class,
+        ReactiveElasticsearchRepositoriesAutoConfiguration.class
+})
+@Import({
+        TodoController.class,
+        AuthController.class,
+        GlobalExceptionHandler.class,
+        SecurityConfig.class,
+        JwtAuthenticationFilter.class,
+        VerifiedTokenCache.class,
+        PrincipalCache.class,
+        PasswordHasher.class,
+        RateLimiter.class,
+        AuthService.class,
+        TodoService.class,
+        TodoMapperImpl.class,
+        TodoReadCoalescer.class,
+        TodoSearchCache.class,
+        TodoServiceMetrics.class
+})
+public class LoadTestApplication {
+
+    @Bean
+    StoreFaults storeFaults(@Value("${loadtest.store.latency:1ms}") Duration latency,
+                            @Value("${loadtest.store.error-rate:0}") double errorRate) {
+        return new StoreFaults(latency, errorRate);
+    }
+
+    @Bean
+    UserRepository userRepository(StoreFaults storeFaults) {
+        return InMemoryUserRepository.create(storeFaults);
+    }
+
+    @Bean
+    InMemoryTodoStore todoStore(StoreFaults storeFaults) {
+        return new InMemoryTodoStore(storeFaults);
+    }
+
+    @Bean
+    TodoRepository todoRepository(InMemoryTodoStore todoStore) {
+        return todoStore.repository();
+    }
+
+    @Bean
+    ReactiveMongoOperations mongoOperations(InMemoryTodoStore todoStore) {
+        return todoStore.operations();
+    }
+
+    // The template is only used to rebuild the index at startup, which nothing runs here: it starts empty and
+    // fills up from the outbox stand-in as the load generator adds tasks
+    @Bean
+    TodoSearchEngine searchEngine(TodoRepository todoRepository, TodoMapper mapper, MeterRegistry meterRegistry) {
+        return new EmbeddedTodoSearchEngine(MongoWriteSide.stub(ReactiveMongoTemplate.class), todoRepository, mapper,
+                meterRegistry, 1);
+    }
+
+    @Bean
+    TransactionalOperator transactionalOperator() {
+        return MongoWriteSide.transactionalOperator();
+    }
+
+    @Bean
+    TodoSyncService syncService(StoreFaults storeFaults) {
+        return MongoWriteSide.syncService(storeFaults);
+    }
+
+    @Bean
+    TodoOutboxService outboxService(TodoSearchEngine searchEngine, StoreFaults storeFaults) {
+        return MongoWriteSide.outboxService(searchEngine, storeFaults);
+    }
+
+    @Bean
+    TodoStatsService statsService(InMemoryTodoStore todoStore, StoreFaults storeFaults) {
+        return MongoWriteSide.statsService(todoStore, storeFaults);
+    }
+
+    // GET /todo/stream is not part of the load mix
+    @Bean
+    TodoChangeFeed changeFeed() {
+        return MongoWriteSide.stub(TodoChangeFeed.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.sony.todoapp.loadtest;
+
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.service.TodoOutboxService;
+import com.sony.todoapp.service.TodoSearchEngine;
+import com.sony.todoapp.service.TodoStatsService;
+import com.sony.todoapp.service.TodoSyncService;
+import org.mockito.Mockito;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stand-ins for the rest of the Mongo write path around the todos collection: transactions, the per-user change
+// version counter, the outbox and the stats counters. They are stub-only mocks (no invocation recording, so they
+// do not grow during a run), and each stubbed call goes through StoreFaults once. The outbox applies every event
+// to the search engine right away, as if the relay were instant, so ETag versions are settled at once.
+final class MongoWriteSide {
+
+    private MongoWriteSide() {
+    }
+
+    static TransactionalOperator transactionalOperator() {
+        TransactionalOperator operator = stub(TransactionalOperator.class);
+        Mockito.when(operator.transactional(Mockito.any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        return operator;
+    }
+
+    static TodoSyncService syncService(StoreFaults faults) {
+        ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+        TodoSyncService sync = stub(TodoSyncService.class);
+
+        Mockito.when(sync.reserveVersions(Mockito.anyString(), Mockito.anyInt())).thenAnswer(inv -> faults.apply(
+                Mono.fromSupplier(() -> counter(versions, inv.getArgument(0)).addAndGet(inv.<Integer>getArgument(1)))));
+        Mockito.when(sync.nextVersion(Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Mono.fromSupplier(() -> counter(versions, inv.getArgument(0)).incrementAndGet())));
+        Mockito.when(sync.recordDelete(Mockito.anyString(), Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Mono.fromRunnable(() -> counter(versions, inv.getArgument(1)).incrementAndGet())));
+        Mockito.when(sync.recordDeletes(Mockito.anyList(), Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Mono.fromRunnable(() -> counter(versions, inv.getArgument(1)).addAndGet(inv.<List<String>>getArgument(0).size()))));
+        Mockito.when(sync.currentVersion(Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Mono.fromSupplier(() -> counter(versions, inv.getArgument(0)).get())));
+        Mockito.when(sync.settledVersion(Mockito.anyString(), Mockito.any(Duration.class))).thenAnswer(inv -> faults.apply(
+                Mono.fromSupplier(() -> counter(versions, inv.getArgument(0)).get())));
+        return sync;
+    }
+
+    static TodoOutboxService outboxService(TodoSearchEngine searchEngine, StoreFaults faults) {
+        TodoOutboxService outbox = stub(TodoOutboxService.class);
+
+        Mockito.when(outbox.recordUpsert(Mockito.any(Todo.class))).thenAnswer(inv -> faults.apply(
+                searchEngine.upsert(inv.getArgument(0))));
+        Mockito.when(outbox.recordUpserts(Mockito.anyCollection())).thenAnswer(inv -> faults.apply(
+                Flux.fromIterable(inv.<Collection<Todo>>getArgument(0)).concatMap(searchEngine::upsert).then()));
+        Mockito.when(outbox.recordDelete(Mockito.anyString(), Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                searchEngine.delete(inv.getArgument(0), inv.getArgument(1))));
+        Mockito.when(outbox.recordDeletes(Mockito.anyCollection(), Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Flux.fromIterable(inv.<Collection<String>>getArgument(0))
+                        .concatMap(id -> searchEngine.delete(id, inv.getArgument(1)))
+                        .then()));
+        return outbox;
+    }
+
+    static TodoStatsService statsService(InMemoryTodoStore store, StoreFaults faults) {
+        TodoStatsService stats = stub(TodoStatsService.class);
+
+        Mockito.when(stats.recordCreated(Mockito.anyString(), Mockito.anyInt())).thenAnswer(inv -> faults.apply(Mono.empty()));
+        Mockito.when(stats.recordCompleted(Mockito.anyString())).thenAnswer(inv -> faults.apply(Mono.empty()));
+        Mockito.when(stats.recordCompleted(Mockito.anyString(), Mockito.anyInt())).thenAnswer(inv -> faults.apply(Mono.empty()));
+        Mockito.when(stats.recordDeleted(Mockito.anyString(), Mockito.anyBoolean())).thenAnswer(inv -> faults.apply(Mono.empty()));
+        Mockito.when(stats.recordDeleted(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt())).thenAnswer(inv -> faults.apply(Mono.empty()));
+        Mockito.when(stats.getStats(Mockito.anyString())).thenAnswer(inv -> faults.apply(
+                Mono.fromSupplier(() -> store.stats(inv.getArgument(0)))));
+        return stats;
+    }
+
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    private static AtomicLong counter(ConcurrentHashMap<String, AtomicLong> versions, String userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+}
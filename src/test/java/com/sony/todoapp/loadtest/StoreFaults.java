@@ -0,0 +1,39 @@
+package com.sony.todoapp.loadtest;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Latency and failures injected into every call of the in-memory stores, to stand in for Mongo/Elasticsearch.
+// The delay is a timer, not a sleep, so like a real driver call it does not hold a thread.
+class StoreFaults {
+
+    private final Duration latency;
+    private final double errorRate;
+
+    StoreFaults(Duration latency, double errorRate) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+    }
+
+    <T> Mono<T> apply(Mono<T> call) {
+        Mono<T> outcome = Mono.defer(() -> fails()
+                ? Mono.error(new DataAccessResourceFailureException("Injected store failure"))
+                : call);
+        return latency.isZero() ? outcome : Mono.delay(latency).then(outcome);
+    }
+
+    <T> Flux<T> apply(Flux<T> call) {
+        Flux<T> outcome = Flux.defer(() -> fails()
+                ? Flux.error(new DataAccessResourceFailureException("Injected store failure"))
+                : call);
+        return latency.isZero() ? outcome : Mono.delay(latency).thenMany(outcome);
+    }
+
+    private boolean fails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
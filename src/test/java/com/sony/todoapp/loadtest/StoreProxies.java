@@ -0,0 +1,41 @@
+package com.sony.todoapp.loadtest;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+// Proxies for the in-memory stores. Each store lists the methods it implements by name; the list is checked
+// against the interface when the proxy is created, so a renamed or removed repository method fails the load
+// test at startup instead of turning into errors part way through a run. Any other method throws.
+final class StoreProxies {
+
+    private StoreProxies() {
+    }
+
+    static <T> T create(Class<T> type, Map<String, BiFunction<Method, Object[], Object>> calls) {
+        Set<String> declared = Arrays.stream(type.getMethods()).map(Method::getName).collect(Collectors.toSet());
+        List<String> missing = calls.keySet().stream().filter(name -> !declared.contains(name)).sorted().toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException(type.getSimpleName() + " no longer has " + missing
+                    + "; update the load-test store");
+        }
+
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "toString" -> "InMemory." + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> calls.getOrDefault(method.getName(), (m, a) -> unsupported(m))
+                            .apply(method, args == null ? new Object[0] : args);
+                }));
+    }
+
+    static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("Not available in the load-test store: " + method);
+    }
+}
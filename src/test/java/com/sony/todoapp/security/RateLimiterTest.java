@@ -0,0 +1,56 @@
+package com.sony.todoapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RateLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final RateLimiter limiter = new RateLimiter(registry, 1000,
+            Map.of(RateLimiter.Group.AUTH, new RateLimiter.Limit(3, 0.5)), now::get);
+
+    @Test
+    void testBurstThenRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.acquire(RateLimiter.Group.AUTH, "ip:10.0.0.1"));
+        }
+
+        // One token every 2 seconds
+        assertEquals(2, limiter.acquire(RateLimiter.Group.AUTH, "ip:10.0.0.1"));
+        assertEquals(1, registry.get("todo.ratelimit.rejected").tag("group", "auth").counter().count());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.acquire(RateLimiter.Group.AUTH, "ip:10.0.0.1"));
+    }
+
+    @Test
+    void testCallersHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(RateLimiter.Group.AUTH, "ip:10.0.0.1");
+        }
+
+        assertEquals(0, limiter.acquire(RateLimiter.Group.AUTH, "ip:10.0.0.2"));
+    }
+
+    @Test
+    void testGroupWithoutLimitIsNotLimited() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.acquire(RateLimiter.Group.READ, "user:user123"));
+        }
+    }
+
+    @Test
+    void testRouteGroups() {
+        assertEquals(RateLimiter.Group.WRITE, RateLimitFilter.group(HttpMethod.POST, "/todo/add"));
+        assertEquals(RateLimiter.Group.SEARCH, RateLimitFilter.group(HttpMethod.GET, "/todo/search"));
+        assertEquals(RateLimiter.Group.READ, RateLimitFilter.group(HttpMethod.GET, "/todo"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.util.PageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmbeddedTodoSearchEngineTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private static Todo todo(String id, String name, int minutes, boolean completed) {
+        return new Todo(id, name, null, completed, T0.plusMinutes(minutes), completed ? T0.plusMinutes(minutes) : null, "user123", 0);
+    }
+
+    private static EmbeddedTodoSearchEngine.UserIndex index(Todo... todos) {
+        EmbeddedTodoSearchEngine.UserIndex index = new EmbeddedTodoSearchEngine.UserIndex();
+        for (Todo todo : todos) {
+            index.put(todo);
+        }
+        return index;
+    }
+
+    @Test
+    void testTokensAreFoldedAndLowercased() {
+        assertEquals(Set.of("cafe", "creme", "brulee"), EmbeddedTodoSearchEngine.tokens("Café: Crème-Brûlée"));
+    }
+
+    @Test
+    void testEveryWordMustPrefixMatch() {
+        EmbeddedTodoSearchEngine.UserIndex index = index(
+                todo("a", "Buy milk", 1, false),
+                todo("b", "Buy bread", 2, false),
+                todo("c", "Milkshake recipe", 3, false));
+
+        assertEquals(List.of("c", "a"), index.match("mil", null, null, 10));
+        assertEquals(List.of("a"), index.match("bu mi", null, null, 10));
+        assertTrue(index.match("ilk", null, null, 10).isEmpty());
+    }
+
+    @Test
+    void testFiltersAndPagesNewestFirst() {
+        EmbeddedTodoSearchEngine.UserIndex index = index(
+                todo("a", "Report draft", 1, true),
+                todo("b", "Report review", 2, false),
+                todo("c", "Report send", 3, false));
+
+        assertEquals(List.of("c", "b"), index.match("report", false, null, 10));
+        assertEquals(List.of("c"), index.match("report", null, null, 1));
+
+        PageCursor afterC = PageCursor.of(T0.plusMinutes(3), "c");
+        assertEquals(List.of("b", "a"), index.match("report", null, afterC, 10));
+    }
+
+    @Test
+    void testPageKeepsTheNewestInOrder() {
+        EmbeddedTodoSearchEngine.UserIndex index = new EmbeddedTodoSearchEngine.UserIndex();
+        for (int minutes : new int[]{7, 2, 9, 4, 0, 8, 3, 6, 1, 5}) {
+            index.put(todo("t" + minutes, "Task " + minutes, minutes, false));
+        }
+        // Same createdAt: higher id first
+        index.put(todo("t9b", "Task 9b", 9, false));
+
+        assertEquals(List.of("t9b", "t9", "t8", "t7"), index.match("task", null, null, 4));
+        assertEquals(11, index.match("task", null, null, 100).size());
+    }
+
+    @Test
+    void testUpdatesAndDeletesAreIncremental() {
+        EmbeddedTodoSearchEngine.UserIndex index = index(todo("a", "Call mom", 1, false));
+
+        index.put(todo("a", "Call dad", 1, false));
+        assertTrue(index.match("mom", null, null, 10).isEmpty());
+        assertEquals(List.of("a"), index.match("dad", null, null, 10));
+
+        index.remove("a");
+        assertTrue(index.match("dad", null, null, 10).isEmpty());
+        assertEquals(0, index.size());
+
+        // Freed slot is reused
+        index.put(todo("b", "Call dad again", 2, false));
+        assertEquals(List.of("b"), index.match("call", null, null, 10));
+    }
+
+    @Test
+    void testSuggestReturnsDistinctNames() {
+        EmbeddedTodoSearchEngine.UserIndex index = index(
+                todo("a", "Groceries", 1, false),
+                todo("b", "groceries", 2, true),
+                todo("c", "Grow tomatoes", 3, false));
+
+        assertEquals(List.of("Grow tomatoes", "groceries"), index.suggest("gro", 10));
+    }
+}
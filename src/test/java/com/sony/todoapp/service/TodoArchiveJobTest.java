@@ -0,0 +1,127 @@
+package com.sony.todoapp.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.sony.todoapp.entity.Todo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoArchiveJobTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private final ReactiveMongoTemplate mongoTemplate = Mockito.mock(ReactiveMongoTemplate.class);
+    private final TransactionalOperator transactionalOperator = Mockito.mock(TransactionalOperator.class);
+    private final TodoOutboxService outboxService = Mockito.mock(TodoOutboxService.class);
+    private final TodoSyncService syncService = Mockito.mock(TodoSyncService.class);
+
+    private final TodoArchiveJob job = new TodoArchiveJob(mongoTemplate, transactionalOperator, outboxService, syncService,
+            Mockito.mock(TodoLeases.class), new SimpleMeterRegistry(), true, Duration.ofDays(90), Duration.ofHours(1), 3,
+            Duration.ofMillis(1), Duration.ofMinutes(1));
+
+    private final AtomicInteger transactions = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final List<String> failingUsers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(transactionalOperator.transactional(Mockito.any(Mono.class))).thenAnswer(inv -> {
+            transactions.incrementAndGet();
+            return inv.getArgument(0);
+        });
+        Mockito.when(mongoTemplate.insertAll(Mockito.anyCollection())).thenReturn(Flux.empty());
+        Mockito.when(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Todo.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        Mockito.when(outboxService.recordDeletes(Mockito.anyCollection(), Mockito.anyString())).thenReturn(Mono.empty());
+        Mockito.when(syncService.recordDeletes(Mockito.anyList(), Mockito.anyString())).thenReturn(Mono.empty());
+    }
+
+    private static Todo todo(String id, String userId) {
+        return new Todo(id, "Task " + id, null, true, LONG_AGO, LONG_AGO, userId, 1);
+    }
+
+    // The candidate query (no userId) serves the given batches in turn, then nothing; the per-user re-read
+    // inside the transaction returns that user's candidates of the current batch, or fails for failingUsers
+    private void candidates(List<List<Todo>> perBatch) {
+        Mockito.when(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Todo.class))).thenAnswer(inv -> {
+            Query query = inv.getArgument(0);
+            Object userId = query.getQueryObject().get("userId");
+            if (userId == null) {
+                int batch = batches.getAndIncrement();
+                return Flux.fromIterable(batch < perBatch.size() ? perBatch.get(batch) : List.of());
+            }
+            if (failingUsers.contains(userId)) {
+                return Flux.error(new IllegalStateException("WriteConflict"));
+            }
+            return Flux.fromIterable(perBatch.get(batches.get() - 1))
+                    .filter(todo -> todo.getUserId().equals(userId));
+        });
+    }
+
+    @Test
+    void testEachUserMovesInItsOwnTransaction() {
+        candidates(List.of(List.of(todo("a", "u1"), todo("b", "u2"), todo("c", "u1"))));
+
+        assertEquals(3, job.archiveAll().block());
+
+        assertEquals(2, transactions.get());
+        Mockito.verify(outboxService).recordDeletes(List.of("a", "c"), "u1");
+        Mockito.verify(outboxService).recordDeletes(List.of("b"), "u2");
+        Mockito.verify(syncService).recordDeletes(List.of("a", "c"), "u1");
+        Mockito.verify(syncService).recordDeletes(List.of("b"), "u2");
+        // A full batch, so one more look; it comes back short and the run ends
+        assertEquals(2, batches.get());
+    }
+
+    @Test
+    void testOneUserFailingDoesNotStopTheOthers() {
+        failingUsers.add("u1");
+        candidates(List.of(List.of(todo("a", "u1"), todo("b", "u2"), todo("c", "u3"))));
+
+        assertEquals(2, job.archiveAll().block());
+
+        Mockito.verify(outboxService, Mockito.never()).recordDeletes(Mockito.anyCollection(), Mockito.eq("u1"));
+        Mockito.verify(outboxService).recordDeletes(List.of("b"), "u2");
+        Mockito.verify(outboxService).recordDeletes(List.of("c"), "u3");
+    }
+
+    @Test
+    void testStopsWhenAFullBatchMovesNothing() {
+        // Every user fails, so the next batch would only select the same todos again
+        failingUsers.addAll(List.of("u1", "u2"));
+        List<Todo> stuck = List.of(todo("a", "u1"), todo("b", "u2"), todo("c", "u1"));
+        candidates(List.of(stuck, stuck, stuck));
+
+        assertEquals(0, job.archiveAll().block());
+
+        assertEquals(1, batches.get());
+    }
+
+    @Test
+    void testKeepsGoingWhileBatchesAreFull() {
+        candidates(List.of(
+                List.of(todo("a", "u1"), todo("b", "u1"), todo("c", "u2")),
+                List.of(todo("d", "u1"), todo("e", "u2"), todo("f", "u2")),
+                List.of(todo("g", "u1"))));
+
+        assertEquals(7, job.archiveAll().block());
+
+        assertEquals(3, batches.get());
+        // u1 and u2 in each of the first two batches, u1 alone in the last
+        assertEquals(5, transactions.get());
+    }
+}
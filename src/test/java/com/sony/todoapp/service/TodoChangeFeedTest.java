@@ -0,0 +1,73 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoChangeEventDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.mapper.TodoMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoChangeFeedTest {
+
+    private final ReactiveMongoTemplate mongoTemplate = mongoTemplate();
+    private final TodoChangeFeed feed = new TodoChangeFeed(mongoTemplate, Mockito.mock(TodoMapper.class),
+            new SimpleMeterRegistry(), Duration.ofMinutes(1), 16, 16);
+
+    private static ReactiveMongoTemplate mongoTemplate() {
+        ReactiveMongoTemplate mongoTemplate = Mockito.mock(ReactiveMongoTemplate.class);
+        Mockito.when(mongoTemplate.getCollectionName(Todo.class)).thenReturn("todos");
+        return mongoTemplate;
+    }
+
+    private void changeStreamAnswers(Flux<ChangeStreamEvent<Todo>> events) {
+        Mockito.when(mongoTemplate.changeStream(Mockito.eq("todos"), Mockito.any(ChangeStreamOptions.class), Mockito.eq(Todo.class)))
+                .thenReturn(events);
+    }
+
+    @Test
+    void testUnknownLastEventIdResumesFromMongo() {
+        changeStreamAnswers(Flux.never());
+
+        StepVerifier.create(feed.subscribe("u1", "8263A1"))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        Mockito.verify(mongoTemplate).changeStream(Mockito.eq("todos"), options.capture(), Mockito.eq(Todo.class));
+        assertEquals(new BsonDocument("_data", new BsonString("8263A1")), options.getValue().getResumeToken().orElseThrow());
+    }
+
+    @Test
+    void testTokenMongoNoLongerHasGetsResync() {
+        changeStreamAnswers(Flux.error(new IllegalStateException("ChangeStreamHistoryLost")));
+
+        StepVerifier.create(feed.subscribe("u1", "8263A1"))
+                .expectNextMatches(event -> TodoChangeEventDto.Type.RESYNC.name().equals(event.event()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testNewSubscriberUsesTheSharedStream() {
+        StepVerifier.create(feed.subscribe("u1", null))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        Mockito.verify(mongoTemplate, Mockito.never())
+                .changeStream(Mockito.anyString(), Mockito.any(ChangeStreamOptions.class), Mockito.eq(Todo.class));
+    }
+}
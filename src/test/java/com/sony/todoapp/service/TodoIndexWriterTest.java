@@ -0,0 +1,82 @@
+package com.sony.todoapp.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.sony.todoapp.entity.TodoEs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoIndexWriterTest {
+
+    private final ElasticsearchClient client = Mockito.mock(ElasticsearchClient.class);
+    private final AtomicInteger acknowledged = new AtomicInteger();
+
+    private TodoIndexWriter writer(int flushSize, Duration bulkLatency, Duration closeTimeout) throws Exception {
+        ReactiveElasticsearchOperations operations = Mockito.mock(ReactiveElasticsearchOperations.class);
+        Mockito.when(operations.getIndexCoordinatesFor(TodoEs.class)).thenReturn(IndexCoordinates.of("todos"));
+
+        // Every operation succeeds, after bulkLatency
+        Mockito.when(client.bulk(Mockito.any(BulkRequest.class))).thenAnswer(inv -> {
+            Thread.sleep(bulkLatency.toMillis());
+            BulkRequest request = inv.getArgument(0);
+            List<BulkResponseItem> items = request.operations().stream()
+                    .map(op -> {
+                        BulkResponseItem item = Mockito.mock(BulkResponseItem.class);
+                        Mockito.when(item.id()).thenReturn(op.isIndex() ? op.index().id() : op.delete().id());
+                        return item;
+                    })
+                    .toList();
+            BulkResponse response = Mockito.mock(BulkResponse.class);
+            Mockito.when(response.items()).thenReturn(items);
+            return response;
+        });
+
+        return new TodoIndexWriter(client, operations, new SimpleMeterRegistry(), flushSize, Duration.ofHours(1),
+                10_000, closeTimeout);
+    }
+
+    private static TodoEs doc(int i) {
+        return TodoEs.builder().id("todo-" + i).userId("user123").name("Task " + i).build();
+    }
+
+    @Test
+    void testCloseWaitsForTheLastFlushes() throws Exception {
+        TodoIndexWriter writer = writer(2, Duration.ofMillis(100), Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            writer.upsert(doc(i)).subscribe(null, e -> { }, acknowledged::incrementAndGet);
+        }
+
+        writer.close();
+
+        // Three bulks of at most two, all acknowledged before close() returned
+        assertEquals(0, writer.pending());
+        assertEquals(5, acknowledged.get());
+        Mockito.verify(client, Mockito.times(3)).bulk(Mockito.any(BulkRequest.class));
+    }
+
+    @Test
+    void testCloseGivesUpAfterTimeout() throws Exception {
+        TodoIndexWriter writer = writer(1, Duration.ofSeconds(1), Duration.ofMillis(200));
+        for (int i = 0; i < 3; i++) {
+            writer.upsert(doc(i)).subscribe(null, e -> { }, acknowledged::incrementAndGet);
+        }
+
+        long start = System.nanoTime();
+        writer.close();
+
+        // Returned without waiting for the bulks still to come
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(900)) < 0);
+    }
+}
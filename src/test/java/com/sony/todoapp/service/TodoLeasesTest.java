@@ -0,0 +1,88 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.entity.TodoLease;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoLeasesTest {
+
+    private static final Duration LEASE = Duration.ofMillis(150);
+
+    private final ReactiveMongoTemplate mongoTemplate = Mockito.mock(ReactiveMongoTemplate.class);
+    private final TodoLeases leases = new TodoLeases(mongoTemplate);
+    private final List<Instant> expiries = new ArrayList<>();
+
+    // Each take or renewal of the lease answers with the given outcomes in turn: true = held, false = another
+    // instance holds it (the upsert hits its document)
+    private void leaseAnswers(Boolean... outcomes) {
+        AtomicInteger calls = new AtomicInteger();
+        Mockito.when(mongoTemplate.findAndModify(Mockito.any(Query.class), Mockito.any(UpdateDefinition.class),
+                        Mockito.any(FindAndModifyOptions.class), Mockito.eq(TodoLease.class)))
+                .thenAnswer(inv -> {
+                    boolean held = outcomes[Math.min(calls.getAndIncrement(), outcomes.length - 1)];
+                    expiries.add((Instant) ((UpdateDefinition) inv.getArgument(1)).getUpdateObject()
+                            .get("$set", Document.class).get("expiresAt"));
+                    return held
+                            ? Mono.just(new TodoLease("archive", "me", Instant.now()))
+                            : Mono.error(new DuplicateKeyException("E11000"));
+                });
+    }
+
+    @Test
+    void testSkipsTheRunWhileAnotherInstanceHoldsTheLease() {
+        leaseAnswers(false);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertNull(leases.runExclusively("archive", LEASE, Duration.ofHours(1), Mono.fromSupplier(() -> {
+            ran.set(true);
+            return 1L;
+        })).block());
+
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testKeepsTheLeaseForTheIntervalAfterARun() {
+        leaseAnswers(true);
+
+        assertEquals(7L, leases.runExclusively("archive", LEASE, Duration.ofHours(1), Mono.just(7L)).block());
+
+        // Taken for LEASE, then kept for the hour so the other instances skip their ticks
+        assertEquals(2, expiries.size());
+        assertTrue(expiries.get(1).isAfter(Instant.now().plus(Duration.ofMinutes(59))));
+    }
+
+    @Test
+    void testCancelsTheRunWhenARenewalFails() {
+        // Taken, renewed once, then lost to another instance
+        leaseAnswers(true, true, false);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        Long result = leases.runExclusively("archive", LEASE, Duration.ofHours(1),
+                        Mono.delay(Duration.ofSeconds(5)).doOnCancel(() -> cancelled.set(true)))
+                .block(Duration.ofSeconds(2));
+
+        assertNull(result);
+        assertTrue(cancelled.get());
+        assertEquals(3, expiries.size());
+    }
+}
@@ -0,0 +1,80 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoReadCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TodoReadCoalescer coalescer = new TodoReadCoalescer(registry);
+
+    @Test
+    void testConcurrentIdenticalReadsShareOneRequest() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> first = coalescer.coalesce("user123", 7, "page", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        });
+        Mono<String> second = coalescer.coalesce("user123", 7, "page", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue("tasks"))
+                .assertNext(both -> {
+                    assertEquals("tasks", both.getT1());
+                    assertEquals("tasks", both.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, coalescer.inFlight());
+        assertEquals(0.5, registry.get("todo.read.coalesce.ratio").gauge().value());
+    }
+
+    @Test
+    void testNewerVersionDoesNotJoin() {
+        Sinks.One<String> stale = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> before = coalescer.coalesce("user123", 7, "page", () -> {
+            calls.incrementAndGet();
+            return stale.asMono();
+        });
+        Mono<String> after = coalescer.coalesce("user123", 8, "page", () -> {
+            calls.incrementAndGet();
+            return Mono.just("fresh");
+        });
+
+        StepVerifier.create(Mono.zip(before, after))
+                .then(() -> stale.tryEmitValue("stale"))
+                .assertNext(both -> assertEquals("fresh", both.getT2()))
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+        assertEquals(0, registry.get("todo.read.coalesce.joined").counter().count());
+    }
+
+    @Test
+    void testFinishedFlightIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(coalescer.coalesce("user123", 7, "page", () -> Mono.just(calls.incrementAndGet())))
+                    .expectNext(i + 1)
+                    .verifyComplete();
+        }
+
+        assertEquals(2, calls.get());
+    }
+}
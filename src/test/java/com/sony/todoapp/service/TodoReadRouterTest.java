@@ -0,0 +1,114 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoReadRouterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private TodoReadRouter router(Duration openDuration) {
+        return new TodoReadRouter(registry, Duration.ofMillis(100), Duration.ofSeconds(1), 2, openDuration);
+    }
+
+    @Test
+    void testFailsOverOnError() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+
+        StepVerifier.create(router.mono("page", Mono.error(new IllegalStateException("es down")), Mono.just("mongo")))
+                .expectNext("mongo")
+                .verifyComplete();
+
+        assertEquals(TodoReadRouter.CLOSED, router.state());
+        assertEquals(1, registry.get("todo.read.failover").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    void testFailsOverOnTimeout() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+
+        StepVerifier.create(router.mono("page", Mono.just("es").delayElement(Duration.ofSeconds(5)), Mono.just("mongo")))
+                .expectNext("mongo")
+                .verifyComplete();
+
+        assertEquals(1, registry.get("todo.read.failover").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void testOpensAndSkipsElasticsearch() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+        Mono<String> failing = Mono.error(new IllegalStateException("es down"));
+
+        router.mono("page", failing, Mono.just("mongo")).block();
+        router.mono("page", failing, Mono.just("mongo")).block();
+        assertEquals(TodoReadRouter.OPEN, router.state());
+
+        // While open Elasticsearch is not even subscribed to
+        Mono<String> untouched = Mono.fromCallable(() -> {
+            throw new AssertionError("Elasticsearch called while breaker is open");
+        });
+        assertEquals("mongo", router.mono("page", untouched, Mono.just("mongo")).block());
+        assertEquals(1, registry.get("todo.read.failover").tag("reason", "open").counter().count());
+    }
+
+    @Test
+    void testProbeClosesBreaker() throws InterruptedException {
+        TodoReadRouter router = router(Duration.ofMillis(50));
+        Mono<String> failing = Mono.error(new IllegalStateException("es down"));
+
+        router.mono("page", failing, Mono.just("mongo")).block();
+        router.mono("page", failing, Mono.just("mongo")).block();
+        assertEquals(TodoReadRouter.OPEN, router.state());
+
+        Thread.sleep(60);
+        assertEquals("es", router.mono("page", Mono.just("es"), Mono.just("mongo")).block());
+        assertEquals(TodoReadRouter.CLOSED, router.state());
+    }
+
+    @Test
+    void testStreamDoesNotFailOverAfterFirstItem() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+        Flux<String> breaksMidway = Flux.concat(Flux.just("es-1"), Flux.error(new IllegalStateException("es down")));
+
+        StepVerifier.create(router.flux("all", breaksMidway, Flux.just("mongo-1", "mongo-2")))
+                .expectNext("es-1")
+                .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    void testSlowConsumerDoesNotTimeOutStream() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+
+        // The client asks for one item at a time, far slower than es-timeout (100ms)
+        StepVerifier.create(router.flux("all", Flux.just("es-1", "es-2", "es-3"), Flux.just("mongo")), 1)
+                .expectNext("es-1")
+                .thenAwait(Duration.ofMillis(300))
+                .thenRequest(1)
+                .expectNext("es-2")
+                .thenAwait(Duration.ofMillis(300))
+                .thenRequest(1)
+                .expectNext("es-3")
+                .verifyComplete();
+
+        assertEquals(TodoReadRouter.CLOSED, router.state());
+    }
+
+    @Test
+    void testMidStreamErrorsDoNotOpenBreaker() {
+        TodoReadRouter router = router(Duration.ofMinutes(1));
+        Flux<String> breaksMidway = Flux.concat(Flux.just("es-1"), Flux.error(new IllegalStateException("reset")));
+
+        for (int i = 0; i < 3; i++) {
+            router.flux("all", breaksMidway, Flux.just("mongo")).onErrorResume(e -> Flux.empty()).blockLast();
+        }
+
+        assertEquals(TodoReadRouter.CLOSED, router.state());
+    }
+}
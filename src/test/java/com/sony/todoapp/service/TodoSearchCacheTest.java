@@ -0,0 +1,80 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoSearchCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TodoSearchCache cache = new TodoSearchCache(registry, 1_000_000, Duration.ofMinutes(10));
+
+    private final TodoResponseDto task =
+            new TodoResponseDto("1", "Groceries", "Milk", false, LocalDateTime.now(), "user123", 7);
+
+    @Test
+    void testRepeatedSearchIsServedFromCache() {
+        AtomicInteger searches = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(cache.get("user123", 7, "gro", null, 20, () -> {
+                        searches.incrementAndGet();
+                        return Mono.just(List.of(task));
+                    }))
+                    .expectNext(List.of(task))
+                    .verifyComplete();
+        }
+
+        assertEquals(1, searches.get());
+        assertEquals(2.0 / 3, registry.get("todo.search.cache.hit-ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void testWriteVersionMovesToNewKey() {
+        AtomicInteger searches = new AtomicInteger();
+
+        for (long version = 7; version <= 8; version++) {
+            StepVerifier.create(cache.get("user123", version, "gro", null, 20, () -> {
+                        searches.incrementAndGet();
+                        return Mono.just(List.of(task));
+                    }))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void testFailedSearchIsNotCached() {
+        AtomicInteger searches = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(cache.get("user123", 7, "gro", null, 20, () -> {
+                        searches.incrementAndGet();
+                        return Mono.<List<TodoResponseDto>>error(new IllegalStateException("es down"));
+                    }))
+                    .verifyError(IllegalStateException.class);
+        }
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void testWeightGrowsWithText() {
+        TodoSearchCache.Key key = new TodoSearchCache.Key("user123", 7, "gro", null, 20);
+        TodoResponseDto longer = new TodoResponseDto("2", "Groceries", "x".repeat(1000), false, null, "user123", 7);
+
+        assertTrue(TodoSearchCache.weigh(key, List.of(longer)) > TodoSearchCache.weigh(key, List.of(task)) + 1000);
+    }
+}
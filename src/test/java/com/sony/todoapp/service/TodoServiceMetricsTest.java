@@ -0,0 +1,41 @@
+package com.sony.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoServiceMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TodoServiceMetrics metrics = new TodoServiceMetrics(registry);
+
+    @Test
+    void testTimesEachCallByOutcome() {
+        StepVerifier.create(Mono.just("task").transform(metrics.mono("addTask")))
+                .expectNext("task")
+                .verifyComplete();
+        StepVerifier.create(Mono.error(new IllegalStateException()).transform(metrics.mono("addTask")))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(Flux.range(1, 3).transform(metrics.flux("getAllTasks")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertEquals(1, registry.get("todo.service").tag("method", "addTask").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("todo.service").tag("method", "addTask").tag("outcome", "error").timer().count());
+        assertEquals(1, registry.get("todo.service").tag("method", "getAllTasks").timer().count());
+    }
+
+    @Test
+    void testTimesFromSubscription() {
+        Mono<String> call = Mono.just("task").transform(metrics.mono("getStats"));
+
+        call.block();
+        call.block();
+
+        assertEquals(2, registry.get("todo.service").tag("method", "getStats").timer().count());
+    }
+}
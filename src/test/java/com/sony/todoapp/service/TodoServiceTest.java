@@ -0,0 +1,452 @@
+package com.sony.todoapp.service;
+
+import com.mongodb.MongoException;
+import com.sony.todoapp.dto.BulkImportResultDto;
+import com.sony.todoapp.dto.BulkTodoRequestDto;
+import com.sony.todoapp.dto.BulkTodoResultDto;
+import com.sony.todoapp.dto.TodoPageDto;
+import com.sony.todoapp.dto.TodoRequestDto;
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.exception.BulkOperationFailedException;
+import com.sony.todoapp.exception.PayloadTooLargeException;
+import com.sony.todoapp.mapper.TodoMapperImpl;
+import com.sony.todoapp.repository.TodoRepository;
+import com.sony.todoapp.repository.UserRepository;
+import com.sony.todoapp.util.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoServiceTest {
+
+    private static final String USER = "user123";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private static final Comparator<PageCursor> NEWEST_FIRST = Comparator.comparingLong(PageCursor::createdAtMillis)
+            .thenComparing(PageCursor::id)
+            .reversed();
+
+    private final TodoRepository repository = Mockito.mock(TodoRepository.class);
+    private final ReactiveMongoOperations mongoOperations = Mockito.mock(ReactiveMongoOperations.class);
+    private final TodoOutboxService outboxService = Mockito.mock(TodoOutboxService.class);
+    private final TransactionalOperator transactionalOperator = Mockito.mock(TransactionalOperator.class);
+    private final Validator validator = Mockito.mock(Validator.class);
+    private final TodoSyncService syncService = Mockito.mock(TodoSyncService.class);
+    private final TodoStatsService statsService = Mockito.mock(TodoStatsService.class);
+    private final TodoSearchEngine searchEngine = Mockito.mock(TodoSearchEngine.class);
+
+    private TodoService service;
+    private final List<Todo> stored = new ArrayList<>();
+    private final List<Query> selections = new ArrayList<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicInteger conflicts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new TodoService(repository, mongoOperations, Mockito.mock(UserRepository.class), new TodoMapperImpl(),
+                outboxService, transactionalOperator, validator, Mockito.mock(TodoChangeFeed.class), syncService,
+                statsService, searchEngine, new TodoReadCoalescer(registry),
+                new TodoSearchCache(registry, 1 << 20, Duration.ofMinutes(1)), new TodoServiceMetrics(registry));
+        ReflectionTestUtils.setField(service, "importChunkSize", 2);
+        ReflectionTestUtils.setField(service, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(service, "maxPageSize", 500);
+        ReflectionTestUtils.setField(service, "bulkChunkSize", 2);
+        ReflectionTestUtils.setField(service, "bulkMaxIds", 10);
+        ReflectionTestUtils.setField(service, "bulkMaxTasks", 3);
+
+        // No real transaction: the work runs as is, and a retry simply subscribes to it again
+        Mockito.when(transactionalOperator.transactional(Mockito.any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        Mockito.when(validator.validate(Mockito.any())).thenReturn(Set.of());
+        Mockito.when(outboxService.recordUpserts(Mockito.any())).thenReturn(Mono.empty());
+        Mockito.when(repository.insert(Mockito.<List<Todo>>any())).thenAnswer(inv -> {
+            List<Todo> todos = inv.getArgument(0);
+            todos.forEach(todo -> todo.setId(new ObjectId().toHexString()));
+            return Flux.fromIterable(todos).delayElements(Duration.ofMillis(5));
+        });
+    }
+
+    // Like Mongo, a transaction that bumps the user's version counter while another one holds it is aborted
+    // with a TransientTransactionError; the counter is released when the transaction's last write is done
+    private void conflictingVersionCounter() {
+        AtomicInteger holders = new AtomicInteger();
+        Mockito.when(syncService.reserveVersions(Mockito.eq(USER), Mockito.anyInt())).thenAnswer(inv -> Mono.defer(() -> {
+            if (!holders.compareAndSet(0, 1)) {
+                MongoException conflict = new MongoException(112, "WriteConflict");
+                conflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+                conflicts.incrementAndGet();
+                return Mono.error(conflict);
+            }
+            return Mono.just((long) version.addAndGet(inv.getArgument(1)));
+        }));
+        Mockito.when(statsService.recordCreated(Mockito.eq(USER), Mockito.anyInt()))
+                .thenAnswer(inv -> Mono.delay(Duration.ofMillis(5)).doOnNext(tick -> holders.set(0)).then());
+    }
+
+    private static Flux<TodoRequestDto> tasks(int count) {
+        return Flux.range(0, count).map(i -> {
+            TodoRequestDto dto = new TodoRequestDto();
+            dto.setName("Task " + i);
+            return dto;
+        });
+    }
+
+    @Test
+    void testImportWritesChunksOneAtATime() {
+        conflictingVersionCounter();
+
+        List<BulkImportResultDto> results = service.importTasks(tasks(7), USER).collectList().block();
+
+        assertEquals(7, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == BulkImportResultDto.Status.CREATED));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L), results.stream().map(BulkImportResultDto::getIndex).toList());
+        assertEquals(7, version.get());
+        // Four chunks, none of them aborted by another chunk of the same import
+        assertEquals(0, conflicts.get());
+    }
+
+    @Test
+    void testBulkAddOverTheCapIsRejectedWithoutReadingTheRest() {
+        AtomicInteger read = new AtomicInteger();
+
+        StepVerifier.create(service.addMultipleTasks(tasks(100).doOnNext(dto -> read.incrementAndGet()), USER))
+                .expectError(PayloadTooLargeException.class)
+                .verify();
+
+        assertEquals(4, read.get());
+        Mockito.verifyNoInteractions(repository, syncService);
+    }
+
+    @Test
+    void testConcurrentImportsOfOneUserAllSucceed() {
+        conflictingVersionCounter();
+
+        List<BulkImportResultDto> results = Flux.merge(
+                        service.importTasks(tasks(6), USER),
+                        service.importTasks(tasks(6), USER),
+                        service.importTasks(tasks(6), USER))
+                .collectList()
+                .block();
+
+        assertEquals(18, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == BulkImportResultDto.Status.CREATED));
+        assertEquals(18, version.get());
+    }
+
+    private static TodoResponseDto hot(String id, int minute) {
+        return new TodoResponseDto(id, "hot " + id, null, true, START.plusMinutes(minute), USER, 0);
+    }
+
+    private static Todo archived(String id, int minute) {
+        return new Todo(id, "archived " + id, null, true, START.plusMinutes(minute), START.plusMinutes(minute), USER, 0);
+    }
+
+    // Serves a tier the way the search engine and Mongo do: newest first, strictly after the cursor, at most limit
+    private static <T> List<T> tier(List<T> all, Function<T, PageCursor> key, PageCursor after, int limit) {
+        return all.stream()
+                .filter(item -> after == null || NEWEST_FIRST.compare(key.apply(item), after) > 0)
+                .sorted(Comparator.comparing(key, NEWEST_FIRST))
+                .limit(limit)
+                .toList();
+    }
+
+    private void tiers(List<TodoResponseDto> hot, List<Todo> archive) {
+        Mockito.when(searchEngine.findPage(Mockito.eq(USER), Mockito.eq(true), Mockito.isNull(), Mockito.any(), Mockito.anyInt()))
+                .thenAnswer(inv -> Mono.just(tier(hot, todo -> PageCursor.of(todo.getCreatedAt(), todo.getId()),
+                        inv.getArgument(3), inv.getArgument(4))));
+        Mockito.when(repository.findArchivedPage(Mockito.eq(USER), Mockito.any(), Mockito.anyInt()))
+                .thenAnswer(inv -> Flux.fromIterable(tier(archive, todo -> PageCursor.of(todo.getCreatedAt(), todo.getId()),
+                        inv.getArgument(1), inv.getArgument(2))));
+    }
+
+    private static List<String> ids(TodoPageDto page) {
+        return page.getItems().stream().map(TodoResponseDto::getId).toList();
+    }
+
+    @Test
+    void testArchiveMergeIsNewestFirstAcrossTiers() {
+        // b3 and c3 have the same createdAt, in different tiers: the higher id comes first, as in each tier
+        tiers(List.of(hot("a5", 5), hot("b3", 3)), List.of(archived("a4", 4), archived("c3", 3), archived("a1", 1)));
+
+        TodoPageDto page = service.getCompletedPageWithArchive(USER, null, 10).block();
+
+        assertEquals(List.of("a5", "a4", "c3", "b3", "a1"), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testArchiveMergeListsTodoInBothTiersOnce() {
+        // Archived, but the search index has not applied the DELETE yet
+        tiers(List.of(hot("a5", 5), hot("x2", 2)), List.of(archived("x2", 2), archived("a1", 1)));
+
+        TodoPageDto page = service.getCompletedPageWithArchive(USER, null, 10).block();
+
+        assertEquals(List.of("a5", "x2", "a1"), ids(page));
+        assertEquals("hot x2", page.getItems().get(1).getName());
+    }
+
+    @Test
+    void testArchiveMergePagesWithoutGapsOrRepeats() {
+        List<TodoResponseDto> hot = List.of(hot("h9", 9), hot("h7", 7), hot("b6", 6), hot("h4", 4), hot("d2", 2), hot("h0", 0));
+        List<Todo> archive = List.of(archived("a8", 8), archived("c6", 6), archived("a6", 6), archived("a5", 5),
+                archived("d2", 2), archived("a1", 1));
+        tiers(hot, archive);
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TodoPageDto page = service.getCompletedPageWithArchive(USER, cursor, 3).block();
+            listed.addAll(ids(page));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("h9", "a8", "h7", "c6", "b6", "a6", "a5", "h4", "d2", "a1", "h0"), listed);
+        assertEquals(4, pages);
+    }
+
+    private void store(Todo... todos) {
+        stored.addAll(List.of(todos));
+    }
+
+    private static Todo task(String id, String userId, boolean completed) {
+        return new Todo(id, "Task " + id, null, completed, START, completed ? START : null, userId, 1);
+    }
+
+    private Todo stored(String id) {
+        return stored.stream().filter(todo -> todo.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    // The todos collection as completeChunk sees it: the selection is {$and: [{userId}, {_id: {$in}} or the filter]},
+    // where the filter stands for "pending"; each bulk updateOne completes one task and sets its version
+    private void bulkCollection() {
+        Mockito.when(mongoOperations.find(Mockito.any(Query.class), Mockito.eq(Todo.class))).thenAnswer(inv -> {
+            Query query = inv.getArgument(0);
+            selections.add(query);
+            List<Document> and = query.getQueryObject().getList("$and", Document.class);
+            String userId = and.get(0).getString("userId");
+            Collection<?> ids = and.get(1).get("_id") instanceof Document in ? (Collection<?>) in.get("$in") : null;
+            return Flux.fromIterable(stored.stream()
+                    .filter(todo -> todo.getUserId().equals(userId))
+                    .filter(todo -> ids == null ? !todo.isCompleted() : ids.contains(todo.getId()))
+                    .limit(query.getLimit())
+                    .toList());
+        });
+
+        ReactiveBulkOperations bulk = Mockito.mock(ReactiveBulkOperations.class);
+        Mockito.when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulk);
+        Mockito.when(bulk.updateOne(Mockito.any(Query.class), Mockito.any())).thenAnswer(inv -> {
+            Query query = inv.getArgument(0);
+            Document set = (Document) ((Update) inv.getArgument(1)).getUpdateObject().get("$set");
+            Todo todo = stored(query.getQueryObject().getString("_id"));
+            assertEquals(query.getQueryObject().getString("userId"), todo.getUserId());
+            todo.setCompleted(true);
+            todo.setChangeVersion((Long) set.get("changeVersion"));
+            return bulk;
+        });
+        Mockito.when(bulk.execute()).thenReturn(Mono.empty());
+
+        Mockito.when(syncService.reserveVersions(Mockito.eq(USER), Mockito.anyInt()))
+                .thenAnswer(inv -> Mono.just((long) version.addAndGet(inv.getArgument(1))));
+        Mockito.when(statsService.recordCompleted(Mockito.eq(USER), Mockito.anyInt())).thenReturn(Mono.empty());
+    }
+
+    private static BulkTodoRequestDto byIds(String... ids) {
+        return new BulkTodoRequestDto(List.of(ids), null, null);
+    }
+
+    private static BulkTodoRequestDto createdBefore() {
+        return new BulkTodoRequestDto(null, START.plusDays(1), null);
+    }
+
+    @Test
+    void testBulkCompleteReportsEachIdInRequestOrder() {
+        bulkCollection();
+        store(task("t1", USER, false), task("t2", USER, true), task("t3", "someone-else", false));
+
+        List<BulkTodoResultDto> results = service.completeTasks(byIds("t3", "missing", "t1", "t2", "t1"), USER)
+                .collectList().block();
+
+        // Duplicates dropped; another user's task looks exactly like a missing one
+        assertEquals(List.of(
+                BulkTodoResultDto.of("t3", BulkTodoResultDto.Status.NOT_FOUND),
+                BulkTodoResultDto.of("missing", BulkTodoResultDto.Status.NOT_FOUND),
+                BulkTodoResultDto.of("t1", BulkTodoResultDto.Status.COMPLETED),
+                BulkTodoResultDto.of("t2", BulkTodoResultDto.Status.ALREADY_COMPLETED)), results);
+        assertFalse(stored("t3").isCompleted());
+    }
+
+    @Test
+    void testBulkCompleteWritesIdsInChunks() {
+        bulkCollection();
+        store(task("a", USER, false), task("b", USER, false), task("c", USER, false), task("d", USER, false),
+                task("e", USER, false));
+
+        List<BulkTodoResultDto> results = service.completeTasks(byIds("a", "b", "c", "d", "e"), USER).collectList().block();
+
+        assertEquals(5, results.size());
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), selections.stream()
+                .map(query -> query.getQueryObject().getList("$and", Document.class).get(1).get("_id", Document.class)
+                        .getList("$in", String.class))
+                .toList());
+        Mockito.verify(syncService, Mockito.times(3)).reserveVersions(Mockito.eq(USER), Mockito.anyInt());
+    }
+
+    @Test
+    void testBulkCompleteGivesEachTaskItsOwnVersion() {
+        bulkCollection();
+        version.set(10);
+        store(task("a", USER, false), task("b", USER, true), task("c", USER, false), task("d", USER, false));
+
+        service.completeTasks(byIds("a", "b", "c", "d"), USER).blockLast();
+
+        // Chunk [a, b] reserves one version (b is already completed) and [c, d] two: 11, then 12 and 13
+        assertEquals(11, stored("a").getChangeVersion());
+        assertEquals(1, stored("b").getChangeVersion());
+        assertEquals(12, stored("c").getChangeVersion());
+        assertEquals(13, stored("d").getChangeVersion());
+        assertEquals(13, version.get());
+    }
+
+    @Test
+    void testBulkCompleteRejectsTooManyIds() {
+        StepVerifier.create(service.completeTasks(byIds("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"), USER))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testFilterModeRunsUntilAShortChunk() {
+        bulkCollection();
+        store(task("a", USER, false), task("b", USER, false), task("c", USER, false), task("d", USER, false),
+                task("e", USER, false), task("f", "someone-else", false));
+
+        List<BulkTodoResultDto> results = service.completeTasks(createdBefore(), USER).collectList().block();
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), results.stream().map(BulkTodoResultDto::getId).toList());
+        // Chunks of 2, 2 and 1: the short one means nothing is left
+        assertEquals(3, selections.size());
+        assertFalse(stored("f").isCompleted());
+    }
+
+    @Test
+    void testFilterModeFailureFailsTheRequest() {
+        bulkCollection();
+        store(task("a", USER, false), task("b", USER, false), task("c", USER, false));
+        AtomicInteger reservations = new AtomicInteger();
+        Mockito.when(syncService.reserveVersions(Mockito.eq(USER), Mockito.anyInt())).thenAnswer(inv ->
+                reservations.incrementAndGet() == 1
+                        ? Mono.just((long) version.addAndGet(inv.getArgument(1)))
+                        : Mono.error(new IllegalStateException("Mongo unavailable")));
+
+        // No outcomes at all, just the error: the first chunk's two tasks stay completed
+        StepVerifier.create(service.completeTasks(createdBefore(), USER))
+                .expectErrorSatisfies(e -> {
+                    assertTrue(e instanceof BulkOperationFailedException);
+                    assertEquals(2, ((BulkOperationFailedException) e).getApplied());
+                })
+                .verify();
+        assertTrue(stored("a").isCompleted());
+        assertFalse(stored("c").isCompleted());
+    }
+
+    // The todos collection as markCompleted sees it: each find-and-modify filters on _id, userId and optionally
+    // completed, and $sets fields on the one task it matches
+    private void findAndModifyCollection() {
+        Mockito.when(mongoOperations.findAndModify(Mockito.any(Query.class), Mockito.any(Update.class), Mockito.eq(Todo.class)))
+                .thenAnswer(inv -> modify(inv.getArgument(0), inv.getArgument(1)));
+        Mockito.when(mongoOperations.findAndModify(Mockito.any(Query.class), Mockito.any(Update.class),
+                        Mockito.any(FindAndModifyOptions.class), Mockito.eq(Todo.class)))
+                .thenAnswer(inv -> modify(inv.getArgument(0), inv.getArgument(1)));
+        Mockito.when(repository.findByIdAndUserId(Mockito.anyString(), Mockito.anyString()))
+                .thenAnswer(inv -> Mono.justOrEmpty(stored.stream()
+                        .filter(todo -> todo.getId().equals(inv.getArgument(0)) && todo.getUserId().equals(inv.getArgument(1)))
+                        .findFirst()));
+        Mockito.when(syncService.nextVersion(USER)).thenAnswer(inv -> Mono.fromSupplier(() -> (long) version.incrementAndGet()));
+        Mockito.when(syncService.currentVersion(USER)).thenAnswer(inv -> Mono.fromSupplier(() -> (long) version.get()));
+        Mockito.when(outboxService.recordUpsert(Mockito.any())).thenReturn(Mono.empty());
+        Mockito.when(statsService.recordCompleted(USER)).thenReturn(Mono.empty());
+    }
+
+    private Mono<Todo> modify(Query query, Update update) {
+        Document filter = query.getQueryObject();
+        Document set = (Document) update.getUpdateObject().get("$set");
+        return Mono.justOrEmpty(stored.stream()
+                .filter(todo -> todo.getId().equals(filter.getString("_id")) && todo.getUserId().equals(filter.getString("userId")))
+                .filter(todo -> !filter.containsKey("completed") || filter.getBoolean("completed") == todo.isCompleted())
+                .findFirst()
+                .map(todo -> {
+                    set.forEach((field, value) -> {
+                        switch (field) {
+                            case "completed" -> todo.setCompleted((Boolean) value);
+                            case "completedAt" -> todo.setCompletedAt((LocalDateTime) value);
+                            case "changeVersion" -> todo.setChangeVersion((Long) value);
+                            default -> throw new AssertionError("Unexpected $set " + field);
+                        }
+                    });
+                    return todo;
+                }));
+    }
+
+    @Test
+    void testCompleteTakesOneVersion() {
+        findAndModifyCollection();
+        version.set(4);
+        store(task("t1", USER, false));
+
+        TodoResponseDto completed = service.markCompleted("t1", USER).block();
+
+        assertTrue(completed.isCompleted());
+        assertEquals(5, completed.getChangeVersion());
+        assertEquals(5, service.statsVersion(USER).block());
+        Mockito.verify(outboxService).recordUpsert(stored("t1"));
+    }
+
+    @Test
+    void testRepeatedCompleteLeavesVersionUnchanged() {
+        findAndModifyCollection();
+        version.set(4);
+        store(task("t1", USER, true));
+
+        TodoResponseDto completed = service.markCompleted("t1", USER).block();
+
+        // Answered with the task as it is, and nothing written: ETags, cached pages and sync cursors stay valid
+        assertTrue(completed.isCompleted());
+        assertEquals(1, completed.getChangeVersion());
+        assertEquals(4, service.statsVersion(USER).block());
+        Mockito.verify(syncService, Mockito.never()).nextVersion(Mockito.anyString());
+        Mockito.verify(outboxService, Mockito.never()).recordUpsert(Mockito.any());
+        Mockito.verify(statsService, Mockito.never()).recordCompleted(Mockito.anyString());
+    }
+}
@@ -0,0 +1,98 @@
+package com.sony.todoapp.service;
+
+import com.sony.todoapp.dto.TodoChangesDto;
+import com.sony.todoapp.dto.TodoResponseDto;
+import com.sony.todoapp.entity.Todo;
+import com.sony.todoapp.entity.TodoSyncState;
+import com.sony.todoapp.mapper.TodoMapperImpl;
+import com.sony.todoapp.repository.TodoOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TodoSyncServiceTest {
+
+    private static final String USER = "user123";
+
+    private final ReactiveMongoOperations mongoOperations = Mockito.mock(ReactiveMongoOperations.class);
+    private final TodoOutboxRepository outboxRepository = Mockito.mock(TodoOutboxRepository.class);
+    private final TodoSyncService syncService = new TodoSyncService(mongoOperations, new TodoMapperImpl(), outboxRepository);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mongoOperations.findById(USER, TodoSyncState.class))
+                .thenReturn(Mono.just(new TodoSyncState(USER, 9, 0, null)));
+    }
+
+    private static Todo todo(String id, long changeVersion) {
+        return new Todo(id, "Task " + id, null, false, LocalDateTime.now(), null, USER, changeVersion);
+    }
+
+    @Test
+    void testSnapshotIsPagedWithCursor() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        Mockito.when(mongoOperations.find(queries.capture(), Mockito.eq(Todo.class)))
+                .thenReturn(Flux.just(todo("64f1c0ffee0000000000000a", 3), todo("64f1c0ffee0000000000000b", 5),
+                        todo("64f1c0ffee0000000000000c", 8)))
+                .thenReturn(Flux.just(todo("64f1c0ffee0000000000000c", 8)));
+
+        TodoChangesDto first = syncService.changesSince(USER, 0, null, 2).block();
+
+        assertEquals(List.of("64f1c0ffee0000000000000a", "64f1c0ffee0000000000000b"),
+                first.getChanged().stream().map(TodoResponseDto::getId).toList());
+        assertTrue(first.isHasMore());
+        // Not a version to resume from yet: the client keeps paging with since=0 and the cursor
+        assertEquals(0, first.getVersion());
+        assertEquals(3, queries.getValue().getLimit());
+
+        TodoChangesDto last = syncService.changesSince(USER, first.getVersion(), first.getCursor(), 2).block();
+
+        assertEquals(1, last.getChanged().size());
+        assertFalse(last.isHasMore());
+        assertNull(last.getCursor());
+        // The version the snapshot started at, so the first delta covers writes made while it was paged
+        assertEquals(9, last.getVersion());
+        assertTrue(queries.getValue().getQueryObject().toJson().contains("64f1c0ffee0000000000000b"));
+    }
+
+    @Test
+    void testInvalidSnapshotCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> syncService.changesSince(USER, 0, "not-a-cursor", 2).block());
+    }
+
+    @Test
+    void testNotSettledWhileOutboxEventsRemain() {
+        Mockito.when(outboxRepository.existsByUserId(USER)).thenReturn(Mono.just(true));
+
+        assertNull(syncService.settledVersion(USER, Duration.ofSeconds(2)).block());
+    }
+
+    @Test
+    void testNotSettledUntilIndexHasHadTimeToRefresh() {
+        Instant old = Instant.now().minusSeconds(60);
+        Mockito.when(outboxRepository.existsByUserId(USER)).thenReturn(Mono.just(false));
+        Mockito.when(mongoOperations.findById(USER, TodoSyncState.class))
+                .thenReturn(Mono.just(new TodoSyncState(USER, 9, 0, old, Instant.now())))
+                .thenReturn(Mono.just(new TodoSyncState(USER, 9, 0, old, old)));
+
+        // The last change was acknowledged just now, so a search may not show it yet
+        assertNull(syncService.settledVersion(USER, Duration.ofSeconds(2)).block());
+        assertEquals(9, syncService.settledVersion(USER, Duration.ofSeconds(2)).block());
+    }
+}
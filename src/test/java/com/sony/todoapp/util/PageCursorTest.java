@@ -0,0 +1,34 @@
+package com.sony.todoapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PageCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000);
+        PageCursor cursor = PageCursor.of(createdAt, "64f1c0ffee0000000000beef");
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(createdAt, decoded.createdAt());
+    }
+
+    @Test
+    void testBlankIsFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void testGarbageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+    }
+}